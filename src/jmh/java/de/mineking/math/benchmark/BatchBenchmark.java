@@ -0,0 +1,68 @@
+package de.mineking.math.benchmark;
+
+import de.mineking.math.MathFunction;
+import de.mineking.math.function.DefaultFunctions;
+import de.mineking.math.node.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+//Throughput is reported per element, so the score is elements per second
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BatchBenchmark.SIZE)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+	public final static int SIZE = 1_000_000;
+
+	private MathFunction function;
+	private DoubleUnaryOperator scalar;
+
+	private double[] values;
+	private double[] result;
+
+	private DoubleBuffer valueBuffer;
+	private DoubleBuffer resultBuffer;
+
+	@Setup
+	public void setup() {
+		function = MathFunction.create(Sum.create(
+				Product.create(Constant.create(3), Exponent.create(Variable.defaultVariable, Constant.TWO)),
+				Fraction.create(Variable.defaultVariable, Sum.create(Variable.defaultVariable, Constant.ONE)),
+				UnaryFunctionCall.create(DefaultFunctions.sqrt, Variable.defaultVariable)
+		));
+		scalar = function.compile();
+
+		values = new double[SIZE];
+		result = new double[SIZE];
+		for (int i = 0; i < SIZE; i++) values[i] = i * 0.001;
+
+		valueBuffer = ByteBuffer.allocateDirect(SIZE * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer().put(values);
+		resultBuffer = ByteBuffer.allocateDirect(SIZE * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+	}
+
+	@Benchmark
+	public double[] scalar() {
+		for (int i = 0; i < SIZE; i++) result[i] = scalar.applyAsDouble(values[i]);
+		return result;
+	}
+
+	@Benchmark
+	public double[] array() {
+		function.evaluate(values, result);
+		return result;
+	}
+
+	@Benchmark
+	public DoubleBuffer directBuffer() {
+		function.evaluate(valueBuffer.clear(), resultBuffer.clear());
+		return resultBuffer;
+	}
+}
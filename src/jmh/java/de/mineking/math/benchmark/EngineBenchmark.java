@@ -0,0 +1,109 @@
+package de.mineking.math.benchmark;
+
+import de.mineking.math.MathEnvironment;
+import de.mineking.math.MathFunction;
+import de.mineking.math.function.DefaultFunctions;
+import de.mineking.math.node.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+	@Param({ "4", "16", "64" })
+	public int size;
+
+	private List<Node> terms;
+	private Node polynomial;
+	private Node powers;
+	private Node product;
+	private Node fraction;
+	private MathFunction function;
+
+	private Node polynomialCopy;
+
+	@Setup
+	public void setup() {
+		terms = new ArrayList<>();
+		var powers = new ArrayList<Node>();
+		var factors = new ArrayList<Node>();
+
+		for (int i = 1; i <= size; i++) {
+			var power = Exponent.create(Variable.defaultVariable, Constant.create(i));
+
+			terms.add(Product.create(Constant.create(i), power));
+			powers.add(power);
+			factors.add(i % 2 == 0 ? power : UnaryFunctionCall.create(DefaultFunctions.sin, Product.create(Constant.create(i), Variable.defaultVariable)));
+		}
+
+		this.polynomial = Sum.create(terms);
+		this.powers = Sum.create(powers);
+		this.product = Product.create(factors);
+		this.fraction = Fraction.create(this.polynomial, Product.create(factors.subList(0, Math.max(1, size / 2))));
+		this.function = MathFunction.create(this.polynomial);
+
+		this.polynomialCopy = Sum.create(new ArrayList<>(terms));
+	}
+
+	@Benchmark
+	public Node sumCreate() {
+		return Sum.create(terms);
+	}
+
+	@Benchmark
+	public Node sumApply() {
+		return polynomial.apply(MathEnvironment.DEFAULT);
+	}
+
+	@Benchmark
+	public Node productApply() {
+		return product.apply(MathEnvironment.DEFAULT);
+	}
+
+	@Benchmark
+	public Node fractionApply() {
+		return fraction.apply(MathEnvironment.DEFAULT);
+	}
+
+	@Benchmark
+	public Node fractionApproximation() {
+		return Fraction.fraction(size / 7.0, 0.000_000_1);
+	}
+
+	@Benchmark
+	public Node derivative() {
+		return polynomial.getDerivative(Node.defaultVariable);
+	}
+
+	@Benchmark
+	public Node integral() {
+		return powers.getIntegral(Node.defaultVariable);
+	}
+
+	@Benchmark
+	public Node evaluate() {
+		return function.evaluate(1.5);
+	}
+
+	@Benchmark
+	public boolean equals() {
+		return polynomial.equals(polynomialCopy);
+	}
+
+	@Benchmark
+	public int hash() {
+		return polynomial.hashCode();
+	}
+
+	@Benchmark
+	public String string() {
+		return polynomial.toString();
+	}
+}
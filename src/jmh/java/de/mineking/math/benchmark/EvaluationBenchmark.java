@@ -0,0 +1,73 @@
+package de.mineking.math.benchmark;
+
+import de.mineking.math.MathFunction;
+import de.mineking.math.compile.BytecodeCompiler;
+import de.mineking.math.compile.Evaluator;
+import de.mineking.math.compile.VariableSlots;
+import de.mineking.math.function.DefaultFunctions;
+import de.mineking.math.node.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+	private MathFunction function;
+	private DoubleUnaryOperator closure;
+	private Evaluator bytecode;
+	private VariableSlots slots;
+	private Node bound;
+
+	private double x;
+
+	@Setup
+	public void setup() {
+		function = MathFunction.create(Sum.create(
+				Exponent.create(Variable.defaultVariable, Constant.create(3)),
+				Fraction.create(
+						Product.create(Constant.TWO, UnaryFunctionCall.create(DefaultFunctions.sin, Variable.defaultVariable)),
+						Sum.create(Variable.defaultVariable, Constant.ONE)
+				),
+				UnaryFunctionCall.create(DefaultFunctions.ln, Variable.defaultVariable)
+		));
+
+		closure = function.compile();
+		bytecode = BytecodeCompiler.compile(function, List.of(Node.defaultVariable));
+
+		x = 1.7;
+		slots = VariableSlots.of(Node.defaultVariable);
+		bound = function.bind(slots);
+	}
+
+	@Benchmark
+	public Node tree() {
+		return function.evaluate(x);
+	}
+
+	@Benchmark
+	public double interpreter() {
+		return bound.evalDouble(slots.set(0, x));
+	}
+
+	@Benchmark
+	public double unboundInterpreter() {
+		return function.getNode().evalDouble(slots.set(0, x));
+	}
+
+	@Benchmark
+	public double closure() {
+		return closure.applyAsDouble(x);
+	}
+
+	@Benchmark
+	public double bytecode() {
+		return bytecode.evaluate(x);
+	}
+}
@@ -0,0 +1,63 @@
+package de.mineking.math.benchmark;
+
+import de.mineking.math.MathEnvironment;
+import de.mineking.math.compile.GradientEvaluator;
+import de.mineking.math.node.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GradientBenchmark {
+	@Param({ "4", "32" })
+	public int variables;
+
+	private List<String> names;
+	private List<Node> derivatives;
+	private GradientEvaluator gradient;
+
+	private double[] point;
+	private double[] out;
+
+	@Setup
+	public void setup() {
+		names = new ArrayList<>();
+		var terms = new ArrayList<Node>();
+
+		for (int i = 0; i < variables; i++) {
+			names.add("x" + i);
+			terms.add(Product.create(Variable.create("x" + i), Variable.create("x" + (i + 1) % variables)));
+		}
+
+		var node = Exponent.create(Sum.create(terms), Constant.TWO);
+
+		derivatives = names.stream().map(node::getDerivative).toList();
+		gradient = GradientEvaluator.compile(node, names);
+
+		point = new double[variables];
+		out = new double[variables];
+		for (int i = 0; i < variables; i++) point[i] = 1 + i * 0.01;
+	}
+
+	@Benchmark
+	public double[] symbolic() {
+		var environment = MathEnvironment.DEFAULT;
+		for (int i = 0; i < variables; i++) environment = environment.variable(names.get(i), Constant.create(point[i]));
+
+		for (int i = 0; i < variables; i++) out[i] = derivatives.get(i).apply(environment).value();
+		return out;
+	}
+
+	@Benchmark
+	public double[] reverse() {
+		gradient.gradient(point, out);
+		return out;
+	}
+}
@@ -0,0 +1,30 @@
+package de.mineking.math.benchmark;
+
+import de.mineking.math.MathFunction;
+import de.mineking.math.parse.Parser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+	@Param({ "2x + 1", "3x^2 - 2x + sin(x) / 4", "ln(x^2 + 1) * √(x + 2) - log(2, x) + cos(2 pi x)" })
+	public String expression;
+
+	private Parser parser;
+
+	@Setup
+	public void setup() {
+		parser = new Parser();
+	}
+
+	@Benchmark
+	public MathFunction parse() {
+		return parser.parse(expression);
+	}
+}
@@ -1,35 +1,59 @@
 package de.mineking.math;
 
+import de.mineking.math.cache.SimplificationCache;
+import de.mineking.math.metrics.MathEvents;
+import de.mineking.math.metrics.MathMetrics;
+import de.mineking.math.metrics.MetricsScope;
 import de.mineking.math.node.Constant;
 import de.mineking.math.node.Fraction;
 import de.mineking.math.node.Node;
+import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
 
+//Immutable: every modifier returns a derived environment that shares the variable map with its parent
 public class MathEnvironment {
 	public final static MathEnvironment DEFAULT = new MathEnvironment();
 
-	private final Map<String, Node> variables = new HashMap<>();
+	private final PersistentMap<String, Node> variables;
 
-	private boolean evaluate = false;
-	private boolean factorOut = false;
+	private final boolean evaluate;
+	private final boolean factorOut;
 
-	private double accuracy = 0.000_000_1;
-	private EnumSet<FactorCondition> factorConditions = EnumSet.noneOf(FactorCondition.class);
+	private final double accuracy;
+	private final EnumSet<FactorCondition> factorConditions; //Never modified after construction
+
+	private final SimplificationCache cache;
+	private final MathMetrics metrics;
+	private final SimplificationBudget budget;
+	private Fingerprint fingerprint = null;
+
+	public MathEnvironment() {
+		this(PersistentMap.empty(), false, false, 0.000_000_1, EnumSet.noneOf(FactorCondition.class), null, MathMetrics.NONE, null);
+	}
+
+	private MathEnvironment(@NotNull PersistentMap<String, Node> variables, boolean evaluate, boolean factorOut, double accuracy, @NotNull EnumSet<FactorCondition> factorConditions, @Nullable SimplificationCache cache, @NotNull MathMetrics metrics, @Nullable SimplificationBudget budget) {
+		this.variables = variables;
+		this.evaluate = evaluate;
+		this.factorOut = factorOut;
+		this.accuracy = accuracy;
+		this.factorConditions = factorConditions;
+		this.cache = cache;
+		this.metrics = metrics;
+		this.budget = budget;
+	}
 
 	@NotNull
+	@Contract(pure = true)
 	public MathEnvironment clone() {
-		return new MathEnvironment()
-				.variables(variables)
-				.evaluate(evaluate)
-				.factorOut(factorOut)
-				.accuracy(accuracy)
-				.factorConditions(EnumSet.copyOf(factorConditions));
+		return this; //Instances are immutable and can be shared freely
 	}
 
 	@NotNull
@@ -49,61 +73,171 @@ public class MathEnvironment {
 		return accuracy;
 	}
 
+	//Returns a copy, use hasFactorCondition for lookups
 	@NotNull
 	public EnumSet<FactorCondition> getFactorConditions() {
-		return factorConditions;
+		return factorConditions.clone();
+	}
+
+	public boolean hasFactorCondition(@NotNull FactorCondition condition) {
+		return factorConditions.contains(condition);
+	}
+
+	@Nullable
+	public SimplificationCache getCache() {
+		return cache;
+	}
+
+	@NotNull
+	public MathMetrics getMetrics() {
+		return metrics;
 	}
 
+	@Nullable
+	public SimplificationBudget getBudget() {
+		return budget;
+	}
+
+	//Consumes one rewrite step, returns true if simplification has to stop
+	public boolean isExhausted() {
+		return budget != null && !budget.consume();
+	}
+
+	//Environment for implicit simplifications (canonical forms, constant values). Uses the budget that is active on the current thread, if any
 	@NotNull
+	public static MathEnvironment implicit() {
+		var budget = SimplificationBudget.active();
+		return budget == null ? DEFAULT : DEFAULT.budget(budget);
+	}
+
+	@NotNull
+	public Fingerprint getFingerprint() {
+		//Benign race: concurrent callers compute equal fingerprints
+		var temp = fingerprint;
+		if (temp == null) fingerprint = temp = new Fingerprint(evaluate, factorOut, accuracy, factorConditions, variables);
+
+		return temp;
+	}
+
+	@NotNull
+	@Contract(pure = true)
 	public MathEnvironment variable(@NotNull String name, @NotNull Node node) {
-		variables.put(name, node);
-		return this;
+		return new MathEnvironment(variables.with(name, node), evaluate, factorOut, accuracy, factorConditions, cache, metrics, budget);
 	}
 
 	@NotNull
+	@Contract(pure = true)
 	public MathEnvironment variables(@NotNull Map<String, Node> variables) {
-		this.variables.putAll(variables);
-		return this;
+		return new MathEnvironment(this.variables.with(variables), evaluate, factorOut, accuracy, factorConditions, cache, metrics, budget);
 	}
 
 	@NotNull
+	@Contract(pure = true)
+	public MathEnvironment withoutVariable(@NotNull String name) {
+		return new MathEnvironment(variables.without(name), evaluate, factorOut, accuracy, factorConditions, cache, metrics, budget);
+	}
+
+	@NotNull
+	@Contract(pure = true)
 	public MathEnvironment evaluate(boolean evaluate) {
-		this.evaluate = evaluate;
-		return this;
+		if (this.evaluate == evaluate) return this;
+		return new MathEnvironment(variables, evaluate, factorOut, accuracy, factorConditions, cache, metrics, budget);
 	}
 
 	@NotNull
+	@Contract(pure = true)
 	public MathEnvironment evaluate() {
 		return evaluate(true);
 	}
 
 	@NotNull
+	@Contract(pure = true)
 	public MathEnvironment factorOut(boolean factorOut) {
-		this.factorOut = factorOut;
-		return this;
+		if (this.factorOut == factorOut) return this;
+		return new MathEnvironment(variables, evaluate, factorOut, accuracy, factorConditions, cache, metrics, budget);
 	}
 
 	@NotNull
+	@Contract(pure = true)
 	public MathEnvironment factorOut() {
 		return factorOut(true);
 	}
 
 	@NotNull
+	@Contract(pure = true)
 	public MathEnvironment accuracy(double accuracy) {
-		this.accuracy = accuracy;
-		return this;
+		return new MathEnvironment(variables, evaluate, factorOut, accuracy, factorConditions, cache, metrics, budget);
+	}
+
+	@NotNull
+	@Contract(pure = true)
+	public MathEnvironment factorConditions(@NotNull EnumSet<FactorCondition> conditions) {
+		return new MathEnvironment(variables, evaluate, factorOut, accuracy, conditions.clone(), cache, metrics, budget);
 	}
 
 	@NotNull
-	public MathEnvironment factorConditions(@NotNull EnumSet<FactorCondition> urgency) {
-		this.factorConditions = urgency;
-		return this;
+	@Contract(pure = true)
+	public MathEnvironment factorConditions(@NotNull Set<FactorCondition> conditions) {
+		var temp = EnumSet.noneOf(FactorCondition.class);
+		temp.addAll(conditions);
+
+		return new MathEnvironment(variables, evaluate, factorOut, accuracy, temp, cache, metrics, budget);
 	}
 
 	@NotNull
+	@Contract(pure = true)
 	public MathEnvironment factor(@NotNull FactorCondition condition) {
-		this.factorConditions.add(condition);
-		return this;
+		if (factorConditions.contains(condition)) return this;
+
+		var temp = EnumSet.of(condition);
+		temp.addAll(factorConditions);
+
+		return new MathEnvironment(variables, evaluate, factorOut, accuracy, temp, cache, metrics, budget);
+	}
+
+	@NotNull
+	@Contract(pure = true)
+	public MathEnvironment cache(@Nullable SimplificationCache cache) {
+		if (this.cache == cache) return this;
+		return new MathEnvironment(variables, evaluate, factorOut, accuracy, factorConditions, cache, metrics, budget);
+	}
+
+	//Metrics do not affect results, so they are not part of the fingerprint
+	@NotNull
+	@Contract(pure = true)
+	public MathEnvironment metrics(@NotNull MathMetrics metrics) {
+		if (this.metrics == metrics) return this;
+		return new MathEnvironment(variables, evaluate, factorOut, accuracy, factorConditions, cache, metrics, budget);
+	}
+
+	//Like metrics, the budget does not affect complete results and is not part of the fingerprint
+	@NotNull
+	@Contract(pure = true)
+	public MathEnvironment budget(@Nullable SimplificationBudget budget) {
+		if (this.budget == budget) return this;
+		return new MathEnvironment(variables, evaluate, factorOut, accuracy, factorConditions, cache, metrics, budget);
+	}
+
+	//Every compound node applies through here, which makes this the hook for metrics and flight recorder events
+	@NotNull
+	public Node cached(@NotNull Node node, @NotNull Supplier<Node> simplifier) {
+		if (budget != null && SimplificationBudget.active() != budget) return budget.apply(() -> cached(node, simplifier));
+		if (isExhausted()) return node; //Out of budget: keep this subtree as it is, callers still assemble their simplified parts around it
+
+		if (MathEvents.isSimplifyEnabled()) return MathEvents.apply(node, () -> measured(node, simplifier));
+		return measured(node, simplifier);
+	}
+
+	@NotNull
+	private Node measured(@NotNull Node node, @NotNull Supplier<Node> simplifier) {
+		if (metrics != MathMetrics.NONE) return MetricsScope.apply(metrics, node, () -> uncached(node, simplifier));
+		return uncached(node, simplifier);
+	}
+
+	@NotNull
+	private Node uncached(@NotNull Node node, @NotNull Supplier<Node> simplifier) {
+		if (cache == null) return simplifier.get();
+		return cache.apply(node, this, simplifier);
 	}
 
 	@NotNull
@@ -120,4 +254,7 @@ public class MathEnvironment {
 	public Node createFraction(double value) {
 		return Fraction.fraction(value, accuracy);
 	}
+
+	public record Fingerprint(boolean evaluate, boolean factorOut, double accuracy, @NotNull Set<FactorCondition> factorConditions, @NotNull Map<String, Node> variables) {
+	}
 }
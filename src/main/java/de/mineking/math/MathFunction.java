@@ -1,15 +1,45 @@
 package de.mineking.math;
 
+import de.mineking.math.cache.BoundedCache;
+import de.mineking.math.compile.BatchEvaluator;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.Evaluator;
+import de.mineking.math.compile.VariableSlots;
+import de.mineking.math.metrics.MathEvents;
+import de.mineking.math.metrics.MathMetrics;
+import de.mineking.math.metrics.MetricsScope;
 import de.mineking.math.node.Constant;
 import de.mineking.math.node.Node;
+import de.mineking.math.node.Polynomial;
 import de.mineking.math.node.Sum;
+import de.mineking.math.numeric.Integrator;
+import de.mineking.math.numeric.Sampler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.DoubleBuffer;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleUnaryOperator;
 
 public class MathFunction implements Node {
+	private final static VariableSlots layout = VariableSlots.of(defaultVariable);
+	private final static ThreadLocal<VariableSlots> slots = ThreadLocal.withInitial(layout::copy);
+	private final static ThreadLocal<Dual> dual = ThreadLocal.withInitial(Dual::new);
+
+	private final static int DERIVATIVE_CACHE_SIZE = 8;
+
 	private final Node node;
+	//Only finished derivatives are bounded. Running computations stay in pending until their result is cached, so eviction cannot split them up
+	private final BoundedCache<DerivativeKey, Node> derivatives = new BoundedCache<>(DERIVATIVE_CACHE_SIZE);
+	private final Map<DerivativeKey, CompletableFuture<Node>> pending = new ConcurrentHashMap<>();
+	private BatchEvaluator batch;
+	private Node bound;
+	private Optional<Polynomial> polynomial;
 
 	private MathFunction(@NotNull Node node) {
 		this.node = node;
@@ -20,6 +50,11 @@ public class MathFunction implements Node {
 		return new MathFunction(node);
 	}
 
+	@NotNull
+	public Node getNode() {
+		return node;
+	}
+
 	@NotNull
 	@Override
 	public Node apply(@NotNull MathEnvironment environment) {
@@ -52,17 +87,93 @@ public class MathFunction implements Node {
 	@Override
 	@NotNull
 	public Node getDerivative(@NotNull String variable) {
-		return node.getDerivative(variable);
+		return getDerivative(variable, 1);
+	}
+
+	//Derivatives are simplified once and cached, higher orders are derived from the cached previous order. Concurrent callers wait for the thread that computes an entry
+	@NotNull
+	public Node getDerivative(@NotNull String variable, int order) {
+		if (order < 0) throw new IllegalArgumentException("Order has to be positive");
+		if (order == 0) return node;
+
+		var key = new DerivativeKey(variable, order);
+
+		var cached = derivatives.get(key);
+		if (cached != null) return cached;
+
+		var future = new CompletableFuture<Node>();
+
+		var existing = pending.putIfAbsent(key, future);
+		if (existing != null) {
+			try {
+				return existing.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException cause) throw cause;
+				throw e;
+			}
+		}
+
+		try {
+			//A computation that finished since the lookup above has cached its result before leaving pending
+			cached = derivatives.get(key);
+			if (cached != null) {
+				future.complete(cached);
+				return cached;
+			}
+
+			var previous = getDerivative(variable, order - 1);
+
+			var metrics = MetricsScope.current();
+			var start = metrics == MathMetrics.NONE ? 0 : System.nanoTime();
+
+			var result = MathEvents.calculus("derivative", previous, () -> previous.getDerivative(variable).simplify());
+			if (metrics != MathMetrics.NONE) metrics.derivative(System.nanoTime() - start);
+
+			derivatives.put(key, result);
+			future.complete(result);
+
+			return result;
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			pending.remove(key, future);
+		}
 	}
 
+	//Forward-mode automatic differentiation, the symbolic derivative is still available through getDerivative
 	public double getSlope(double x) {
-		return getDerivative(Node.defaultVariable).apply(MathEnvironment.DEFAULT.clone().variable(Node.defaultVariable, Constant.create(x))).value();
+		return evaluateDual(x, dual.get()).getSlope();
+	}
+
+	public double evaluateDouble(double x) {
+		var slots = MathFunction.slots.get();
+		slots.set(0, x);
+
+		return bound().evalDouble(slots);
+	}
+
+	@NotNull
+	public Dual evaluateDual(double x, @NotNull Dual result) {
+		var slots = MathFunction.slots.get();
+		slots.set(0, x);
+
+		bound().evalDual(slots, 0, result);
+		return result;
 	}
 
 	@Override
 	@NotNull
 	public Node getIntegral(@NotNull String variable) {
-		return node.getIntegral(variable);
+		var metrics = MetricsScope.current();
+		if (metrics == MathMetrics.NONE) return MathEvents.calculus("integral", node, () -> node.getIntegral(variable));
+
+		var start = System.nanoTime();
+		try {
+			return MathEvents.calculus("integral", node, () -> node.getIntegral(variable));
+		} finally {
+			metrics.integral(System.nanoTime() - start);
+		}
 	}
 
 	@NotNull
@@ -70,19 +181,84 @@ public class MathFunction implements Node {
 		var integral = getIntegral(variable);
 
 		return Sum.create(
-				integral.apply(MathEnvironment.DEFAULT.clone().variable(variable, upperBound)),
-				integral.apply(MathEnvironment.DEFAULT.clone().variable(variable, Constant.create(lowerBound))).negate()
+				integral.apply(MathEnvironment.DEFAULT.variable(variable, upperBound)),
+				integral.apply(MathEnvironment.DEFAULT.variable(variable, Constant.create(lowerBound))).negate()
 		);
 	}
 
+	//Uses the symbolic integral if there is one and falls back to numeric integration otherwise
 	public double getArea(double lowerBound, double upperBound) {
-		return getArea(defaultVariable, lowerBound, Constant.create(upperBound)).value();
+		try {
+			var result = getArea(defaultVariable, lowerBound, Constant.create(upperBound)).value();
+			if (!Double.isNaN(result)) return result;
+		} catch (UnsupportedOperationException ignored) {
+		}
+
+		return integrate(lowerBound, upperBound).value();
+	}
+
+	@NotNull
+	public Integrator.Result integrate(@NotNull Integrator integrator, double lowerBound, double upperBound) {
+		return integrator.integrate(this::evaluateDouble, lowerBound, upperBound);
+	}
+
+	@NotNull
+	public Integrator.Result integrate(double lowerBound, double upperBound) {
+		return integrate(Integrator.DEFAULT, lowerBound, upperBound);
 	}
 
 	public double getAverage(double lowerBound, double upperBound) {
 		return getArea(lowerBound, upperBound) / (upperBound - lowerBound);
 	}
 
+	@NotNull
+	@Override
+	public DoubleUnaryOperator compile(@NotNull String variable) {
+		return node.compile(variable);
+	}
+
+	@NotNull
+	@Override
+	public Evaluator compile(@NotNull List<String> variables) {
+		return node.compile(variables);
+	}
+
+	@NotNull
+	public DoubleUnaryOperator compile() {
+		return compile(defaultVariable);
+	}
+
+	//Bound to the layout of the thread-local slots used by evaluateDouble and evaluateDual
+	@NotNull
+	private Node bound() {
+		//Benign race: concurrent callers bind equal trees
+		var temp = bound;
+		if (temp == null) bound = temp = node.bind(layout);
+
+		return temp;
+	}
+
+	@NotNull
+	@Override
+	public Node bind(@NotNull VariableSlots layout) {
+		return node.bind(layout);
+	}
+
+	@Override
+	public double evalDouble(@NotNull VariableSlots slots) {
+		return node.evalDouble(slots);
+	}
+
+	@Override
+	public void evalDual(@NotNull VariableSlots slots, int slot, @NotNull Dual result) {
+		node.evalDual(slots, slot, result);
+	}
+
+	@Override
+	public int getSize() {
+		return node.getSize();
+	}
+
 	@Override
 	public double getDegree(@NotNull String variable) {
 		return node.getDegree(variable);
@@ -109,6 +285,12 @@ public class MathFunction implements Node {
 		return node.getFactors(environment);
 	}
 
+	@NotNull
+	@Override
+	public List<Node> getFactorCandidates(@NotNull MathEnvironment environment) {
+		return node.getFactorCandidates(environment);
+	}
+
 	@Override
 	@Nullable
 	public Node removeFactor(@NotNull Node node, @NotNull MathEnvironment environment) {
@@ -120,6 +302,12 @@ public class MathFunction implements Node {
 		return node.hasValue(environment);
 	}
 
+	@NotNull
+	@Override
+	public Node canonical() {
+		return node.canonical();
+	}
+
 	@Override
 	public double value() {
 		return node.value();
@@ -127,11 +315,59 @@ public class MathFunction implements Node {
 
 	@NotNull
 	public Node evaluate(double value) {
-		return apply(MathEnvironment.DEFAULT.clone().variable(defaultVariable, Constant.create(value)).evaluate());
+		return apply(MathEnvironment.DEFAULT.variable(defaultVariable, Constant.create(value)).evaluate());
 	}
 
 	@NotNull
 	public Node evaluate() {
 		return evaluate(0);
 	}
+
+	@NotNull
+	private BatchEvaluator getBatchEvaluator() {
+		//BatchEvaluator is immutable, so racing threads at worst compile it twice
+		var temp = batch;
+		if (temp == null) batch = temp = BatchEvaluator.compile(node, List.of(defaultVariable));
+
+		return temp;
+	}
+
+	@Nullable
+	public Polynomial getPolynomial() {
+		//Benign race like the batch evaluator, detection is deterministic
+		var temp = polynomial;
+		if (temp == null) polynomial = temp = Optional.ofNullable(Polynomial.of(node, defaultVariable));
+
+		return temp.orElse(null);
+	}
+
+	public void evaluate(@NotNull double[] values, @NotNull double[] result) {
+		var polynomial = getPolynomial();
+
+		if (polynomial != null) polynomial.evaluate(values, result);
+		else getBatchEvaluator().evaluate(values, result);
+	}
+
+	public void evaluate(@NotNull DoubleBuffer values, @NotNull DoubleBuffer result) {
+		getBatchEvaluator().evaluate(values, result);
+	}
+
+	@NotNull
+	public double[] sample(double lowerBound, double upperBound, @NotNull double[] out) {
+		return Sampler.DEFAULT.sample(this, new Sampler.Range(lowerBound, upperBound, out.length), out);
+	}
+
+	@NotNull
+	public double[] sample(double lowerBound, double upperBound, int count) {
+		return sample(lowerBound, upperBound, new double[count]);
+	}
+
+	//Grid over x and y in row-major order
+	@NotNull
+	public double[] sample(double xLowerBound, double xUpperBound, int xCount, double yLowerBound, double yUpperBound, int yCount) {
+		return Sampler.DEFAULT.sample(node, defaultVariable, new Sampler.Range(xLowerBound, xUpperBound, xCount), "y", new Sampler.Range(yLowerBound, yUpperBound, yCount), new double[Math.multiplyExact(xCount, yCount)]);
+	}
+
+	private record DerivativeKey(@NotNull String variable, int order) {
+	}
 }
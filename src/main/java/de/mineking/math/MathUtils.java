@@ -2,7 +2,17 @@ package de.mineking.math;
 
 public class MathUtils {
 	public static int gcd(int a, int b) {
-		return b == 0 ? a : gcd(b, b % a);
+		return b == 0 ? a : gcd(b, a % b);
+	}
+
+	public static long gcd(long a, long b) {
+		while (b != 0) {
+			var temp = a % b;
+			a = b;
+			b = temp;
+		}
+
+		return a;
 	}
 
 	public static int lcm(int a, int b) {
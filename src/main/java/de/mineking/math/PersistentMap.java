@@ -0,0 +1,230 @@
+package de.mineking.math;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+//Immutable AVL tree. Every modification copies only the O(log n) nodes on the path to the changed key and shares the rest.
+public class PersistentMap<K extends Comparable<? super K>, V> extends AbstractMap<K, V> {
+	private final static PersistentMap<?, ?> EMPTY = new PersistentMap<>(null);
+
+	private final Tree<K, V> root;
+	private Set<Entry<K, V>> entries;
+	private int hash;
+
+	private PersistentMap(@Nullable Tree<K, V> root) {
+		this.root = root;
+	}
+
+	@NotNull
+	@SuppressWarnings("unchecked")
+	public static <K extends Comparable<? super K>, V> PersistentMap<K, V> empty() {
+		return (PersistentMap<K, V>) EMPTY;
+	}
+
+	@NotNull
+	public static <K extends Comparable<? super K>, V> PersistentMap<K, V> copyOf(@NotNull Map<? extends K, ? extends V> map) {
+		PersistentMap<K, V> result = empty();
+		for (var e : map.entrySet()) result = result.with(e.getKey(), e.getValue());
+
+		return result;
+	}
+
+	@NotNull
+	public PersistentMap<K, V> with(@NotNull K key, @NotNull V value) {
+		var temp = put(root, key, value);
+		return temp == root ? this : new PersistentMap<>(temp);
+	}
+
+	@NotNull
+	public PersistentMap<K, V> with(@NotNull Map<? extends K, ? extends V> map) {
+		var result = this;
+		for (var e : map.entrySet()) result = result.with(e.getKey(), e.getValue());
+
+		return result;
+	}
+
+	@NotNull
+	public PersistentMap<K, V> without(@NotNull K key) {
+		var temp = remove(root, key);
+		return temp == root ? this : temp == null ? empty() : new PersistentMap<>(temp);
+	}
+
+	@Override
+	public int size() {
+		return size(root);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return find(key) != null;
+	}
+
+	@Override
+	public V get(Object key) {
+		var tree = find(key);
+		return tree == null ? null : tree.value;
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private Tree<K, V> find(Object key) {
+		if (key == null) return null;
+
+		var tree = root;
+		while (tree != null) {
+			int c;
+			try {
+				c = ((Comparable<Object>) key).compareTo(tree.key);
+			} catch (ClassCastException e) {
+				return null;
+			}
+
+			if (c == 0) return tree;
+			tree = c < 0 ? tree.left : tree.right;
+		}
+
+		return null;
+	}
+
+	@Override
+	public int hashCode() {
+		if (hash == 0) hash = super.hashCode();
+		return hash;
+	}
+
+	@NotNull
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		var temp = entries;
+		if (temp == null) entries = temp = new AbstractSet<>() {
+			@NotNull
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return new TreeIterator<>(root);
+			}
+
+			@Override
+			public int size() {
+				return PersistentMap.this.size();
+			}
+		};
+
+		return temp;
+	}
+
+	private static int height(@Nullable Tree<?, ?> tree) {
+		return tree == null ? 0 : tree.height;
+	}
+
+	private static int size(@Nullable Tree<?, ?> tree) {
+		return tree == null ? 0 : tree.size;
+	}
+
+	@NotNull
+	private static <K extends Comparable<? super K>, V> Tree<K, V> put(@Nullable Tree<K, V> tree, @NotNull K key, @NotNull V value) {
+		if (tree == null) return new Tree<>(key, value, null, null);
+
+		var c = key.compareTo(tree.key);
+		if (c < 0) return balance(tree.key, tree.value, put(tree.left, key, value), tree.right);
+		if (c > 0) return balance(tree.key, tree.value, tree.left, put(tree.right, key, value));
+
+		if (tree.value == value) return tree;
+		return new Tree<>(key, value, tree.left, tree.right);
+	}
+
+	@Nullable
+	private static <K extends Comparable<? super K>, V> Tree<K, V> remove(@Nullable Tree<K, V> tree, @NotNull K key) {
+		if (tree == null) return null;
+
+		var c = key.compareTo(tree.key);
+		if (c < 0) {
+			var left = remove(tree.left, key);
+			return left == tree.left ? tree : balance(tree.key, tree.value, left, tree.right);
+		}
+		if (c > 0) {
+			var right = remove(tree.right, key);
+			return right == tree.right ? tree : balance(tree.key, tree.value, tree.left, right);
+		}
+
+		if (tree.left == null) return tree.right;
+		if (tree.right == null) return tree.left;
+
+		var min = tree.right;
+		while (min.left != null) min = min.left;
+
+		return balance(min.key, min.value, tree.left, removeMin(tree.right));
+	}
+
+	@Nullable
+	private static <K, V> Tree<K, V> removeMin(@NotNull Tree<K, V> tree) {
+		if (tree.left == null) return tree.right;
+		return balance(tree.key, tree.value, removeMin(tree.left), tree.right);
+	}
+
+	@NotNull
+	private static <K, V> Tree<K, V> balance(@NotNull K key, @NotNull V value, @Nullable Tree<K, V> left, @Nullable Tree<K, V> right) {
+		if (height(left) > height(right) + 1) {
+			if (height(left.left) >= height(left.right)) return new Tree<>(left.key, left.value, left.left, new Tree<>(key, value, left.right, right));
+
+			var lr = left.right;
+			return new Tree<>(lr.key, lr.value, new Tree<>(left.key, left.value, left.left, lr.left), new Tree<>(key, value, lr.right, right));
+		} else if (height(right) > height(left) + 1) {
+			if (height(right.right) >= height(right.left)) return new Tree<>(right.key, right.value, new Tree<>(key, value, left, right.left), right.right);
+
+			var rl = right.left;
+			return new Tree<>(rl.key, rl.value, new Tree<>(key, value, left, rl.left), new Tree<>(right.key, right.value, rl.right, right.right));
+		}
+
+		return new Tree<>(key, value, left, right);
+	}
+
+	private static class Tree<K, V> {
+		private final K key;
+		private final V value;
+
+		private final Tree<K, V> left;
+		private final Tree<K, V> right;
+
+		private final int height;
+		private final int size;
+
+		private Tree(@NotNull K key, @NotNull V value, @Nullable Tree<K, V> left, @Nullable Tree<K, V> right) {
+			this.key = key;
+			this.value = value;
+			this.left = left;
+			this.right = right;
+
+			this.height = 1 + Math.max(height(left), height(right));
+			this.size = 1 + size(left) + size(right);
+		}
+	}
+
+	private static class TreeIterator<K, V> implements Iterator<Entry<K, V>> {
+		private final Deque<Tree<K, V>> stack = new ArrayDeque<>();
+
+		private TreeIterator(@Nullable Tree<K, V> root) {
+			descend(root);
+		}
+
+		private void descend(@Nullable Tree<K, V> tree) {
+			for (; tree != null; tree = tree.left) stack.push(tree);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !stack.isEmpty();
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (stack.isEmpty()) throw new NoSuchElementException();
+
+			var tree = stack.pop();
+			descend(tree.right);
+
+			return new SimpleImmutableEntry<>(tree.key, tree.value);
+		}
+	}
+}
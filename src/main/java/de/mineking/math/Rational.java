@@ -0,0 +1,299 @@
+package de.mineking.math;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serial;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+//Exact fraction in lowest terms with a positive denominator. Values that fit into longs are computed without allocating BigIntegers and only promoted on overflow
+public final class Rational extends Number implements Comparable<Rational> {
+	public final static Rational ZERO = new Rational(0, 1);
+	public final static Rational ONE = new Rational(1, 1);
+
+	@Serial
+	private final static long serialVersionUID = 1L;
+
+	private final static long EXACT_DOUBLE = 1L << 53;
+	private final static int MIN_EXPONENT = -1074; //Exponent of the smallest subnormal double
+
+	private final long numerator;
+	private final long denominator;
+
+	private final BigInteger bigNumerator;
+	private final BigInteger bigDenominator;
+
+	private Rational(long numerator, long denominator) {
+		this.numerator = numerator;
+		this.denominator = denominator;
+		this.bigNumerator = null;
+		this.bigDenominator = null;
+	}
+
+	private Rational(@NotNull BigInteger numerator, @NotNull BigInteger denominator) {
+		this.numerator = 0;
+		this.denominator = 0;
+		this.bigNumerator = numerator;
+		this.bigDenominator = denominator;
+	}
+
+	@NotNull
+	public static Rational of(long value) {
+		if (value == 0) return ZERO;
+		if (value == 1) return ONE;
+
+		return new Rational(value, 1);
+	}
+
+	@NotNull
+	public static Rational of(long numerator, long denominator) {
+		if (denominator == 0) throw new ArithmeticException("Division by zero");
+		if (numerator == Long.MIN_VALUE || denominator == Long.MIN_VALUE) return of(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+
+		if (denominator < 0) {
+			numerator = -numerator;
+			denominator = -denominator;
+		}
+
+		var gcd = MathUtils.gcd(Math.abs(numerator), denominator);
+		return create(numerator / gcd, denominator / gcd);
+	}
+
+	@NotNull
+	public static Rational of(@NotNull BigInteger numerator, @NotNull BigInteger denominator) {
+		if (denominator.signum() == 0) throw new ArithmeticException("Division by zero");
+
+		if (denominator.signum() < 0) {
+			numerator = numerator.negate();
+			denominator = denominator.negate();
+		}
+
+		var gcd = numerator.gcd(denominator);
+		if (!gcd.equals(BigInteger.ONE)) {
+			numerator = numerator.divide(gcd);
+			denominator = denominator.divide(gcd);
+		}
+
+		if (numerator.bitLength() < 64 && denominator.bitLength() < 64) return create(numerator.longValue(), denominator.longValue());
+		return new Rational(numerator, denominator);
+	}
+
+	@NotNull
+	private static Rational create(long numerator, long denominator) {
+		if (denominator == 1) return of(numerator);
+		return new Rational(numerator, denominator);
+	}
+
+	//Every finite double is a dyadic fraction, so this conversion is exact
+	@Nullable
+	public static Rational valueOf(double value) {
+		if (!Double.isFinite(value)) return null;
+		if (value == (long) value) return of((long) value);
+
+		var decimal = new BigDecimal(value);
+		if (decimal.scale() <= 0) return of(decimal.toBigInteger(), BigInteger.ONE);
+
+		return of(decimal.unscaledValue(), BigInteger.TEN.pow(decimal.scale()));
+	}
+
+	//Continued fraction expansion, returns the first convergent within accuracy or null if none has a denominator of at most maxDenominator
+	@Nullable
+	public static Rational approximate(double value, long maxDenominator, double accuracy) {
+		if (!Double.isFinite(value)) return null;
+		if (value == Math.rint(value) && Math.abs(value) <= EXACT_DOUBLE) return of((long) value);
+
+		long p0 = 0, q0 = 1, p1 = 1, q1 = 0;
+		var x = value;
+
+		try {
+			while (true) {
+				var a = Math.floor(x);
+				if (Math.abs(a) > EXACT_DOUBLE) return null;
+
+				var p = Math.addExact(Math.multiplyExact((long) a, p1), p0);
+				var q = Math.addExact(Math.multiplyExact((long) a, q1), q0);
+				if (q > maxDenominator) return null;
+
+				if (Math.abs((double) p / q - value) <= accuracy) return of(p, q);
+				if (x == a) return null;
+
+				p0 = p1;
+				q0 = q1;
+				p1 = p;
+				q1 = q;
+
+				x = 1 / (x - a);
+			}
+		} catch (ArithmeticException e) {
+			return null;
+		}
+	}
+
+	private boolean isBig() {
+		return bigNumerator != null;
+	}
+
+	@NotNull
+	public BigInteger getNumerator() {
+		return isBig() ? bigNumerator : BigInteger.valueOf(numerator);
+	}
+
+	@NotNull
+	public BigInteger getDenominator() {
+		return isBig() ? bigDenominator : BigInteger.valueOf(denominator);
+	}
+
+	public boolean isInteger() {
+		return isBig() ? bigDenominator.equals(BigInteger.ONE) : denominator == 1;
+	}
+
+	public boolean isZero() {
+		return signum() == 0;
+	}
+
+	public int signum() {
+		return isBig() ? bigNumerator.signum() : Long.signum(numerator);
+	}
+
+	@NotNull
+	public Rational negate() {
+		if (!isBig() && numerator != Long.MIN_VALUE) return create(-numerator, denominator);
+		return of(getNumerator().negate(), getDenominator());
+	}
+
+	@NotNull
+	public Rational reciprocal() {
+		if (!isBig()) return of(denominator, numerator);
+		return of(bigDenominator, bigNumerator);
+	}
+
+	@NotNull
+	public Rational add(@NotNull Rational other) {
+		if (!isBig() && !other.isBig()) {
+			try {
+				if (denominator == other.denominator) return of(Math.addExact(numerator, other.numerator), denominator);
+				return of(
+						Math.addExact(Math.multiplyExact(numerator, other.denominator), Math.multiplyExact(other.numerator, denominator)),
+						Math.multiplyExact(denominator, other.denominator)
+				);
+			} catch (ArithmeticException ignored) {
+			}
+		}
+
+		return of(
+				getNumerator().multiply(other.getDenominator()).add(other.getNumerator().multiply(getDenominator())),
+				getDenominator().multiply(other.getDenominator())
+		);
+	}
+
+	@NotNull
+	public Rational subtract(@NotNull Rational other) {
+		return add(other.negate());
+	}
+
+	@NotNull
+	public Rational multiply(@NotNull Rational other) {
+		if (!isBig() && !other.isBig()) {
+			try {
+				return of(Math.multiplyExact(numerator, other.numerator), Math.multiplyExact(denominator, other.denominator));
+			} catch (ArithmeticException ignored) {
+			}
+		}
+
+		return of(getNumerator().multiply(other.getNumerator()), getDenominator().multiply(other.getDenominator()));
+	}
+
+	@NotNull
+	public Rational divide(@NotNull Rational other) {
+		return multiply(other.reciprocal());
+	}
+
+	@NotNull
+	public Rational pow(int exponent) {
+		if (exponent < 0) return reciprocal().pow(-exponent);
+
+		var result = ONE;
+		var base = this;
+
+		for (; exponent > 0; exponent >>= 1) {
+			if ((exponent & 1) == 1) result = result.multiply(base);
+			if (exponent > 1) base = base.multiply(base);
+		}
+
+		return result;
+	}
+
+	@Override
+	public int intValue() {
+		return (int) longValue();
+	}
+
+	@Override
+	public long longValue() {
+		return isBig() ? bigNumerator.divide(bigDenominator).longValue() : numerator / denominator;
+	}
+
+	@Override
+	public float floatValue() {
+		return (float) doubleValue();
+	}
+
+	@Override
+	public double doubleValue() {
+		//Both operands are exact doubles, so the division is rounded once by the hardware
+		if (!isBig() && Math.abs(numerator) <= EXACT_DOUBLE && denominator <= EXACT_DOUBLE) return (double) numerator / denominator;
+
+		var top = getNumerator().abs();
+		var bottom = getDenominator();
+
+		//Scale so that the quotient has at least 56 bits. A nonzero remainder is kept as sticky bit below the rounding position
+		var scale = 56 - (top.bitLength() - bottom.bitLength());
+		var division = scale >= 0 ? top.shiftLeft(scale).divideAndRemainder(bottom) : top.divideAndRemainder(bottom.shiftLeft(-scale));
+
+		var quotient = division[0];
+		if (division[1].signum() != 0) quotient = quotient.setBit(0);
+
+		//Drop everything beyond 53 significant bits, or beyond the last subnormal bit for tiny values, and round half to even
+		var drop = Math.max(quotient.bitLength() - 53, MIN_EXPONENT + scale);
+		var mantissa = quotient.shiftRight(drop);
+		var rest = quotient.subtract(mantissa.shiftLeft(drop)).shiftLeft(1).compareTo(BigInteger.ONE.shiftLeft(drop));
+		if (rest > 0 || rest == 0 && mantissa.testBit(0)) mantissa = mantissa.add(BigInteger.ONE);
+
+		var result = Math.scalb(mantissa.doubleValue(), drop - scale); //Exact, the mantissa fits and the exponent is in range or overflows to infinity
+		return signum() < 0 ? -result : result;
+	}
+
+	@Override
+	public int compareTo(@NotNull Rational other) {
+		if (!isBig() && !other.isBig()) {
+			try {
+				return Long.compare(Math.multiplyExact(numerator, other.denominator), Math.multiplyExact(other.numerator, denominator));
+			} catch (ArithmeticException ignored) {
+			}
+		}
+
+		return getNumerator().multiply(other.getDenominator()).compareTo(other.getNumerator().multiply(getDenominator()));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof Rational r)) return false;
+
+		//Both sides are in lowest terms and only use the big representation when a long does not fit
+		if (!isBig() && !r.isBig()) return numerator == r.numerator && denominator == r.denominator;
+		return isBig() && r.isBig() && bigNumerator.equals(r.bigNumerator) && bigDenominator.equals(r.bigDenominator);
+	}
+
+	@Override
+	public int hashCode() {
+		if (!isBig()) return Long.hashCode(numerator) * 31 + Long.hashCode(denominator);
+		return bigNumerator.hashCode() * 31 + bigDenominator.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return isInteger() ? getNumerator().toString() : getNumerator() + "/" + getDenominator();
+	}
+}
@@ -0,0 +1,89 @@
+package de.mineking.math;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+//Limits the work of one simplification. Every rewrite step consumes from the budget, once it is exhausted (or the thread is interrupted) simplification returns the tree as far as it got.
+//A budget is consumed by use, so every request should create its own
+public class SimplificationBudget {
+	//The clock and the interrupt flag are only checked every few steps
+	private final static int CHECK_INTERVAL = 64;
+
+	//Simplifications started implicitly while the budget is active (e.g. to compute canonical forms for equality checks) consume from the same budget
+	private final static ThreadLocal<SimplificationBudget> active = new ThreadLocal<>();
+
+	private final long maxSteps;
+	private final long deadline;
+
+	private final AtomicLong steps = new AtomicLong();
+	private volatile boolean exhausted = false;
+
+	private SimplificationBudget(long maxSteps, long deadline) {
+		this.maxSteps = maxSteps;
+		this.deadline = deadline;
+	}
+
+	@NotNull
+	public static SimplificationBudget create(long maxSteps, @NotNull Duration timeout) {
+		return new SimplificationBudget(maxSteps, System.nanoTime() + timeout.toNanos());
+	}
+
+	@NotNull
+	public static SimplificationBudget steps(long maxSteps) {
+		return new SimplificationBudget(maxSteps, Long.MAX_VALUE);
+	}
+
+	@NotNull
+	public static SimplificationBudget timeout(@NotNull Duration timeout) {
+		return create(Long.MAX_VALUE, timeout);
+	}
+
+	//Only honors thread interruption
+	@NotNull
+	public static SimplificationBudget unlimited() {
+		return new SimplificationBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+	}
+
+	@Nullable
+	public static SimplificationBudget active() {
+		return active.get();
+	}
+
+	//Runs the task with this budget active on the current thread
+	public <T> T apply(@NotNull Supplier<T> task) {
+		var previous = active.get();
+		if (previous == this) return task.get();
+
+		active.set(this);
+		try {
+			return task.get();
+		} finally {
+			if (previous == null) active.remove();
+			else active.set(previous);
+		}
+	}
+
+	//Returns false if the step may not be taken anymore
+	public boolean consume() {
+		if (exhausted) return false;
+
+		var step = steps.incrementAndGet();
+		if (step > maxSteps) exhausted = true;
+		else if (step % CHECK_INTERVAL == 0 && (Thread.currentThread().isInterrupted() || (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0))) exhausted = true;
+
+		return !exhausted;
+	}
+
+	//True if simplification was cut short, in which case the result is only partially simplified
+	public boolean isExhausted() {
+		return exhausted;
+	}
+
+	public long getSteps() {
+		return Math.min(steps.get(), maxSteps);
+	}
+}
@@ -0,0 +1,122 @@
+package de.mineking.math.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+public class BoundedCache<K, V> {
+	private final int maximumSize;
+	private final long maximumWeight;
+	private final ToIntBiFunction<K, V> weigher;
+
+	//Access ordered, so the first entry is always the least recently used one
+	private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long weight = 0;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public BoundedCache(int maximumSize, long maximumWeight, @NotNull ToIntBiFunction<K, V> weigher) {
+		if (maximumSize <= 0) throw new IllegalArgumentException("maximumSize has to be positive");
+		if (maximumWeight <= 0) throw new IllegalArgumentException("maximumWeight has to be positive");
+
+		this.maximumSize = maximumSize;
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+	}
+
+	public BoundedCache(int maximumSize) {
+		this(maximumSize, Long.MAX_VALUE, (k, v) -> 1);
+	}
+
+	@Nullable
+	public V get(@NotNull K key) {
+		Entry<V> entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+		}
+
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+
+		hits.increment();
+		return entry.value();
+	}
+
+	public void put(@NotNull K key, @NotNull V value) {
+		var weight = weigher.applyAsInt(key, value);
+		if (weight > maximumWeight) return;
+
+		synchronized (entries) {
+			var old = entries.put(key, new Entry<>(value, weight));
+			this.weight += weight - (old == null ? 0 : old.weight());
+
+			var iterator = entries.values().iterator();
+			while (iterator.hasNext() && (entries.size() > maximumSize || this.weight > maximumWeight)) {
+				this.weight -= iterator.next().weight();
+				iterator.remove();
+				evictions.increment();
+			}
+		}
+	}
+
+	//Returns the present value without replacing it, or null if the value was inserted
+	@Nullable
+	public V putIfAbsent(@NotNull K key, @NotNull V value) {
+		synchronized (entries) {
+			var existing = entries.get(key);
+			if (existing != null) {
+				hits.increment();
+				return existing.value();
+			}
+
+			misses.increment();
+			put(key, value);
+
+			return null;
+		}
+	}
+
+	//The value is computed outside the lock, so concurrent misses for the same key may compute it more than once
+	@NotNull
+	public V computeIfAbsent(@NotNull K key, @NotNull Function<? super K, ? extends V> function) {
+		var value = get(key);
+		if (value != null) return value;
+
+		value = function.apply(key);
+		put(key, value);
+
+		return value;
+	}
+
+	public void invalidate(@NotNull K key) {
+		synchronized (entries) {
+			var old = entries.remove(key);
+			if (old != null) weight -= old.weight();
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+			weight = 0;
+		}
+	}
+
+	@NotNull
+	public CacheStatistics getStatistics() {
+		synchronized (entries) {
+			return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), entries.size(), weight);
+		}
+	}
+
+	private record Entry<V>(@NotNull V value, int weight) {
+	}
+}
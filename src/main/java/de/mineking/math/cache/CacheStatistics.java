@@ -0,0 +1,12 @@
+package de.mineking.math.cache;
+
+public record CacheStatistics(long hits, long misses, long evictions, int size, long weight) {
+	public long requests() {
+		return hits + misses;
+	}
+
+	public double hitRate() {
+		var requests = requests();
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+}
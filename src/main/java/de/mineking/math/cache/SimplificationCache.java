@@ -0,0 +1,69 @@
+package de.mineking.math.cache;
+
+import de.mineking.math.MathEnvironment;
+import de.mineking.math.node.Node;
+import de.mineking.math.node.NodeInterner;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Supplier;
+
+public class SimplificationCache {
+	private final BoundedCache<Key, Node> cache;
+
+	public SimplificationCache(int maximumSize, long maximumWeight) {
+		this.cache = new BoundedCache<>(maximumSize, maximumWeight, (key, result) -> key.node.getSize() + result.getSize());
+	}
+
+	public SimplificationCache(int maximumSize) {
+		this(maximumSize, Long.MAX_VALUE);
+	}
+
+	@NotNull
+	public Node apply(@NotNull Node node, @NotNull MathEnvironment environment, @NotNull Supplier<Node> simplifier) {
+		var key = new Key(node, environment.getFingerprint());
+
+		var result = cache.get(key);
+		environment.getMetrics().cache(result != null);
+		if (result != null) return result;
+
+		result = simplifier.get();
+
+		//Results that were cut short by the budget are valid but not fully simplified, so they must not be reused
+		var budget = environment.getBudget();
+		if (budget == null || !budget.isExhausted()) cache.put(key, result);
+
+		return result;
+	}
+
+	@NotNull
+	public CacheStatistics getStatistics() {
+		return cache.getStatistics();
+	}
+
+	public void clear() {
+		cache.clear();
+	}
+
+	//Nodes are compared structurally, not through equals, which would have to simplify the node first. Fresh nodes built by the combine loops therefore hit entries of identical subtrees without NodeInterner
+	private static class Key {
+		private final Node node;
+		private final MathEnvironment.Fingerprint fingerprint;
+		private final int hash;
+
+		private Key(@NotNull Node node, @NotNull MathEnvironment.Fingerprint fingerprint) {
+			this.node = node;
+			this.fingerprint = fingerprint;
+			this.hash = 31 * NodeInterner.structuralHash(node) + fingerprint.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key k && k.hash == hash && NodeInterner.structurallyEqual(k.node, node) && k.fingerprint.equals(fingerprint);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
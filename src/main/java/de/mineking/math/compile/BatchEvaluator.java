@@ -0,0 +1,159 @@
+package de.mineking.math.compile;
+
+import de.mineking.math.function.BinaryFunction;
+import de.mineking.math.function.UnaryFunction;
+import de.mineking.math.node.Node;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.DoubleBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+public class BatchEvaluator {
+	//Small enough for all live columns of typical expressions to stay in the L1/L2 cache
+	public final static int BLOCK_SIZE = 512;
+
+	private final Program program;
+
+	private final int[] slots;
+	private final int slotCount;
+
+	public BatchEvaluator(@NotNull Program program) {
+		this.program = program;
+
+		var lastUse = new int[program.size];
+		for (int i = 0; i < program.size; i++) {
+			if (program.first[i] >= 0 && program.operations[i] != Program.VARIABLE) lastUse[program.first[i]] = i;
+			if (program.second[i] >= 0) lastUse[program.second[i]] = i;
+		}
+
+		//Columns are reused once their value is no longer needed. All operations work element-wise, so a result may share the column of its operand.
+		this.slots = new int[program.size];
+
+		var free = new ArrayDeque<Integer>();
+		var count = 0;
+
+		for (int i = 0; i < program.size; i++) {
+			if (program.first[i] >= 0 && program.operations[i] != Program.VARIABLE && lastUse[program.first[i]] == i) free.push(slots[program.first[i]]);
+			if (program.second[i] >= 0 && lastUse[program.second[i]] == i && program.second[i] != program.first[i]) free.push(slots[program.second[i]]);
+
+			slots[i] = free.isEmpty() ? count++ : free.pop();
+		}
+
+		this.slotCount = count;
+	}
+
+	@NotNull
+	public static BatchEvaluator compile(@NotNull Node node, @NotNull List<String> variables) {
+		return new BatchEvaluator(Program.compile(node, variables));
+	}
+
+	@NotNull
+	public Program getProgram() {
+		return program;
+	}
+
+	@NotNull
+	public List<String> getVariables() {
+		return program.variables;
+	}
+
+	public void evaluate(@NotNull double[][] variables, @NotNull double[] result) {
+		if (variables.length != program.variables.size()) throw new IllegalArgumentException("Expected " + program.variables.size() + " variable columns, got " + variables.length);
+		for (var column : variables) {
+			if (column.length < result.length) throw new IllegalArgumentException("Variable column is shorter than the result");
+		}
+
+		var workspace = new Workspace();
+		for (int offset = 0; offset < result.length; offset += BLOCK_SIZE) {
+			var length = Math.min(BLOCK_SIZE, result.length - offset);
+			System.arraycopy(block(workspace, variables, offset, length), 0, result, offset, length);
+		}
+	}
+
+	public void evaluate(@NotNull double[] values, @NotNull double[] result) {
+		evaluate(new double[][] { values }, result);
+	}
+
+	public void evaluate(@NotNull DoubleBuffer values, @NotNull DoubleBuffer result) {
+		if (program.variables.size() != 1) throw new IllegalArgumentException("Expected " + program.variables.size() + " variable columns, got 1");
+		if (result.remaining() < values.remaining()) throw new IllegalArgumentException("Result buffer is smaller than the value buffer");
+
+		var workspace = new Workspace();
+		var input = new double[][] { new double[BLOCK_SIZE] };
+
+		while (values.hasRemaining()) {
+			var length = Math.min(BLOCK_SIZE, values.remaining());
+
+			values.get(input[0], 0, length);
+			result.put(block(workspace, input, 0, length), 0, length);
+		}
+	}
+
+	@NotNull
+	private double[] block(@NotNull Workspace workspace, @NotNull double[][] variables, int offset, int length) {
+		var columns = workspace.columns;
+
+		for (int i = 0; i < program.size; i++) {
+			var r = columns[slots[i]];
+
+			switch (program.operations[i]) {
+				case Program.CONSTANT -> Arrays.fill(r, 0, length, program.constants[i]);
+				case Program.VARIABLE -> System.arraycopy(variables[program.first[i]], offset, r, 0, length);
+				case Program.ADD -> {
+					var a = columns[slots[program.first[i]]];
+					var b = columns[slots[program.second[i]]];
+					for (int j = 0; j < length; j++) r[j] = a[j] + b[j];
+				}
+				case Program.MULTIPLY -> {
+					var a = columns[slots[program.first[i]]];
+					var b = columns[slots[program.second[i]]];
+					for (int j = 0; j < length; j++) r[j] = a[j] * b[j];
+				}
+				case Program.DIVIDE -> {
+					var a = columns[slots[program.first[i]]];
+					var b = columns[slots[program.second[i]]];
+					for (int j = 0; j < length; j++) r[j] = a[j] / b[j];
+				}
+				case Program.POWER -> {
+					var a = columns[slots[program.first[i]]];
+					var b = columns[slots[program.second[i]]];
+
+					if (program.operations[program.second[i]] == Program.CONSTANT && program.constants[program.second[i]] == 2) {
+						for (int j = 0; j < length; j++) r[j] = a[j] * a[j];
+					} else {
+						for (int j = 0; j < length; j++) r[j] = Math.pow(a[j], b[j]);
+					}
+				}
+				case Program.UNARY -> {
+					var function = (UnaryFunction) program.functions[i];
+					var a = columns[slots[program.first[i]]];
+					for (int j = 0; j < length; j++) r[j] = function.apply(a[j]);
+				}
+				case Program.BINARY -> {
+					var function = (BinaryFunction) program.functions[i];
+					var a = columns[slots[program.first[i]]];
+					var b = columns[slots[program.second[i]]];
+					for (int j = 0; j < length; j++) r[j] = function.apply(a[j], b[j]);
+				}
+				case Program.EVALUATOR -> {
+					var evaluator = (Evaluator) program.functions[i];
+					var point = workspace.point;
+
+					for (int j = 0; j < length; j++) {
+						for (int v = 0; v < point.length; v++) point[v] = variables[v][offset + j];
+						r[j] = evaluator.evaluate(point);
+					}
+				}
+			}
+		}
+
+		return columns[slots[program.size - 1]];
+	}
+
+	private class Workspace {
+		private final double[][] columns = new double[slotCount][BLOCK_SIZE];
+		private final double[] point = new double[program.variables.size()];
+	}
+}
@@ -0,0 +1,181 @@
+package de.mineking.math.compile;
+
+import de.mineking.math.MathFunction;
+import de.mineking.math.function.DefaultFunctions;
+import de.mineking.math.function.UnaryFunction;
+import de.mineking.math.node.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BytecodeCompiler {
+	private final static String NAME = "de/mineking/math/compile/GeneratedEvaluator";
+	private final static String OBJECT = "java/lang/Object";
+	private final static String MATH = "java/lang/Math";
+	private final static String EVALUATOR = "de/mineking/math/compile/Evaluator";
+	private final static String UNARY_FUNCTION = "de/mineking/math/function/UnaryFunction";
+	private final static String BINARY_FUNCTION = "de/mineking/math/function/BinaryFunction";
+
+	private final static int MAX_CODE_LENGTH = 65535;
+
+	@NotNull
+	public static Evaluator compile(@NotNull Node node, @NotNull List<String> variables) {
+		var generator = new Generator(variables);
+		generator.emit(node);
+
+		var code = generator.code.op(0xAF, -2); //dreturn
+		if (code.toByteArray().length > MAX_CODE_LENGTH) return node.compile(variables);
+
+		var writer = generator.writer;
+		writer.addField(ClassWriter.ACC_PRIVATE | ClassWriter.ACC_FINAL, "references", "[Ljava/lang/Object;");
+
+		writer.addMethod(ClassWriter.ACC_PUBLIC, "<init>", "([Ljava/lang/Object;)V", new ClassWriter.Code(2)
+				.op(0x2A, 1) //aload_0
+				.opIndex(0xB7, -1, writer.method(OBJECT, "<init>", "()V")) //invokespecial
+				.op(0x2A, 1) //aload_0
+				.op(0x2B, 1) //aload_1
+				.opIndex(0xB5, -2, writer.field(NAME, "references", "[Ljava/lang/Object;")) //putfield
+				.op(0xB1, 0) //return
+		);
+		writer.addMethod(ClassWriter.ACC_PUBLIC, "evaluate", "([D)D", code);
+
+		try {
+			//Hidden classes that are not defined with ClassOption.STRONG can be unloaded once the returned evaluator is unreachable
+			var lookup = MethodHandles.lookup().defineHiddenClass(writer.toByteArray(), true);
+			return (Evaluator) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, Object[].class)).invoke(generator.references.toArray());
+		} catch (Throwable e) {
+			throw new IllegalStateException("Failed to define generated evaluator", e);
+		}
+	}
+
+	@Nullable
+	private static String intrinsic(@NotNull UnaryFunction function) {
+		if (function == DefaultFunctions.sin) return "sin";
+		if (function == DefaultFunctions.cos) return "cos";
+		if (function == DefaultFunctions.tan) return "tan";
+		if (function == DefaultFunctions.ln) return "log";
+		if (function == DefaultFunctions.sqrt) return "sqrt";
+
+		return null;
+	}
+
+	private static class Generator {
+		private final List<String> variables;
+
+		private final ClassWriter writer = new ClassWriter(NAME, EVALUATOR);
+		private final ClassWriter.Code code = new ClassWriter.Code(2);
+		private final List<Object> references = new ArrayList<>();
+
+		private Generator(@NotNull List<String> variables) {
+			this.variables = variables;
+		}
+
+		private void emit(@NotNull Node node) {
+			if (node instanceof MathFunction f) emit(f.getNode());
+			else if (node instanceof Constant c) constant(c.value());
+			else if (node instanceof ImaginaryUnit) constant(Double.NaN);
+			else if (node instanceof Variable v) {
+				var index = variables.indexOf(v.getName());
+				if (index < 0) throw new UnsupportedOperationException("Unknown variable: " + v.getName());
+
+				code.op(0x2B, 1); //aload_1
+				integer(index);
+				code.op(0x31, -2 + 2); //daload
+			} else if (node instanceof Sum s) {
+				var nodes = s.getNodes();
+
+				emit(nodes.get(0));
+				for (int i = 1; i < nodes.size(); i++) {
+					emit(nodes.get(i));
+					code.op(0x63, -2); //dadd
+				}
+			} else if (node instanceof Product p) {
+				var nodes = p.getNodes();
+
+				emit(nodes.get(0));
+				for (int i = 1; i < nodes.size(); i++) {
+					emit(nodes.get(i));
+					code.op(0x6B, -2); //dmul
+				}
+			} else if (node instanceof Fraction f) {
+				emit(f.getTop());
+				emit(f.getBottom());
+				code.op(0x6F, -2); //ddiv
+			} else if (node instanceof Exponent e) {
+				emit(e.getBase());
+
+				if (e.getExponent() instanceof Constant c && c.value() == 2) {
+					code.op(0x5C, 2); //dup2
+					code.op(0x6B, -2); //dmul
+				} else {
+					emit(e.getExponent());
+					code.opIndex(0xB8, -2, writer.method(MATH, "pow", "(DD)D")); //invokestatic
+				}
+			} else if (node instanceof UnaryFunctionCall u) {
+				var intrinsic = intrinsic(u.getFunction());
+
+				if (intrinsic != null) {
+					emit(u.getParam());
+					code.opIndex(0xB8, 0, writer.method(MATH, intrinsic, "(D)D")); //invokestatic
+				} else {
+					reference(u.getFunction(), UNARY_FUNCTION);
+					emit(u.getParam());
+					code.opIndex(0xB9, -3 + 2, writer.interfaceMethod(UNARY_FUNCTION, "apply", "(D)D")).raw(3, 0); //invokeinterface
+				}
+			} else if (node instanceof BinaryFunctionCall b) {
+				var function = b.getFunction();
+
+				if (function == DefaultFunctions.log) {
+					emit(b.getParam2());
+					code.opIndex(0xB8, 0, writer.method(MATH, "log", "(D)D"));
+					emit(b.getParam1());
+					code.opIndex(0xB8, 0, writer.method(MATH, "log", "(D)D"));
+					code.op(0x6F, -2); //ddiv
+				} else if (function == DefaultFunctions.root) {
+					emit(b.getParam2());
+					code.op(0x0F, 2); //dconst_1
+					emit(b.getParam1());
+					code.op(0x6F, -2); //ddiv
+					code.opIndex(0xB8, -2, writer.method(MATH, "pow", "(DD)D"));
+				} else {
+					reference(function, BINARY_FUNCTION);
+					emit(b.getParam1());
+					emit(b.getParam2());
+					code.opIndex(0xB9, -5 + 2, writer.interfaceMethod(BINARY_FUNCTION, "apply", "(DD)D")).raw(5, 0); //invokeinterface
+				}
+			} else {
+				//Unknown node types are called through their closure evaluator
+				reference(node.compile(variables), EVALUATOR);
+				code.op(0x2B, 1); //aload_1
+				code.opIndex(0xB9, -2 + 2, writer.interfaceMethod(EVALUATOR, "evaluate", "([D)D")).raw(2, 0); //invokeinterface
+			}
+		}
+
+		private void constant(double value) {
+			if (Double.doubleToRawLongBits(value) == 0) code.op(0x0E, 2); //dconst_0
+			else if (value == 1) code.op(0x0F, 2); //dconst_1
+			else code.opIndex(0x14, 2, writer.constant(value)); //ldc2_w
+		}
+
+		private void integer(int value) {
+			if (value <= 5) code.op(0x03 + value, 1); //iconst_<n>
+			else if (value <= Byte.MAX_VALUE) code.op(0x10, 1, value); //bipush
+			else if (value <= Short.MAX_VALUE) code.opIndex(0x11, 1, value); //sipush
+			else throw new UnsupportedOperationException();
+		}
+
+		private void reference(@NotNull Object object, @NotNull String type) {
+			code.op(0x2A, 1); //aload_0
+			code.opIndex(0xB4, 0, writer.field(NAME, "references", "[Ljava/lang/Object;")); //getfield
+			integer(references.size());
+			code.op(0x32, -1); //aaload
+			code.opIndex(0xC0, 0, writer.type(type)); //checkcast
+
+			references.add(object);
+		}
+	}
+}
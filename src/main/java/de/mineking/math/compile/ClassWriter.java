@@ -0,0 +1,237 @@
+package de.mineking.math.compile;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+//Only supports straight-line methods, which do not need stack map frames
+class ClassWriter {
+	public final static int VERSION = 61;
+
+	public final static int ACC_PUBLIC = 0x0001;
+	public final static int ACC_PRIVATE = 0x0002;
+	public final static int ACC_FINAL = 0x0010;
+	public final static int ACC_SUPER = 0x0020;
+
+	private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+	private final DataOutputStream poolData = new DataOutputStream(pool);
+	private final Map<String, Integer> entries = new HashMap<>();
+	private int poolSize = 1;
+
+	private final ByteArrayOutputStream fields = new ByteArrayOutputStream();
+	private final DataOutputStream fieldData = new DataOutputStream(fields);
+	private int fieldCount = 0;
+
+	private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+	private final DataOutputStream methodData = new DataOutputStream(methods);
+	private int methodCount = 0;
+
+	private final String name;
+	private final String[] interfaces;
+
+	public ClassWriter(@NotNull String name, @NotNull String... interfaces) {
+		this.name = name;
+		this.interfaces = interfaces;
+	}
+
+	public int utf8(@NotNull String value) {
+		return entry("utf8:" + value, 1, out -> {
+			out.writeByte(1);
+			out.writeUTF(value);
+		});
+	}
+
+	public int type(@NotNull String name) {
+		var utf = utf8(name);
+		return entry("class:" + name, 1, out -> {
+			out.writeByte(7);
+			out.writeShort(utf);
+		});
+	}
+
+	public int constant(double value) {
+		return entry("double:" + Double.doubleToRawLongBits(value), 2, out -> {
+			out.writeByte(6);
+			out.writeDouble(value);
+		});
+	}
+
+	public int field(@NotNull String owner, @NotNull String name, @NotNull String descriptor) {
+		return reference(9, owner, name, descriptor);
+	}
+
+	public int method(@NotNull String owner, @NotNull String name, @NotNull String descriptor) {
+		return reference(10, owner, name, descriptor);
+	}
+
+	public int interfaceMethod(@NotNull String owner, @NotNull String name, @NotNull String descriptor) {
+		return reference(11, owner, name, descriptor);
+	}
+
+	private int reference(int tag, @NotNull String owner, @NotNull String name, @NotNull String descriptor) {
+		var type = type(owner);
+		var nameUtf = utf8(name);
+		var descriptorUtf = utf8(descriptor);
+
+		var nameAndType = entry("nat:" + name + ":" + descriptor, 1, out -> {
+			out.writeByte(12);
+			out.writeShort(nameUtf);
+			out.writeShort(descriptorUtf);
+		});
+
+		return entry(tag + ":" + owner + "." + name + ":" + descriptor, 1, out -> {
+			out.writeByte(tag);
+			out.writeShort(type);
+			out.writeShort(nameAndType);
+		});
+	}
+
+	private int entry(@NotNull String key, int slots, @NotNull EntryWriter writer) {
+		var existing = entries.get(key);
+		if (existing != null) return existing;
+
+		try {
+			writer.write(poolData);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		var index = poolSize;
+		poolSize += slots;
+		entries.put(key, index);
+
+		return index;
+	}
+
+	public void addField(int access, @NotNull String name, @NotNull String descriptor) {
+		var nameUtf = utf8(name);
+		var descriptorUtf = utf8(descriptor);
+
+		try {
+			fieldData.writeShort(access);
+			fieldData.writeShort(nameUtf);
+			fieldData.writeShort(descriptorUtf);
+			fieldData.writeShort(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		fieldCount++;
+	}
+
+	public void addMethod(int access, @NotNull String name, @NotNull String descriptor, @NotNull Code code) {
+		var nameUtf = utf8(name);
+		var descriptorUtf = utf8(descriptor);
+		var codeUtf = utf8("Code");
+
+		var bytes = code.toByteArray();
+		if (bytes.length > 65535) throw new IllegalStateException("Method too large");
+
+		try {
+			methodData.writeShort(access);
+			methodData.writeShort(nameUtf);
+			methodData.writeShort(descriptorUtf);
+			methodData.writeShort(1);
+
+			methodData.writeShort(codeUtf);
+			methodData.writeInt(12 + bytes.length);
+			methodData.writeShort(code.maxStack);
+			methodData.writeShort(code.maxLocals);
+			methodData.writeInt(bytes.length);
+			methodData.write(bytes);
+			methodData.writeShort(0); //Exception table
+			methodData.writeShort(0); //Attributes
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		methodCount++;
+	}
+
+	@NotNull
+	public byte[] toByteArray() {
+		var self = type(name);
+		var parent = type("java/lang/Object");
+		var interfaces = new int[this.interfaces.length];
+		for (int i = 0; i < interfaces.length; i++) interfaces[i] = type(this.interfaces[i]);
+
+		var result = new ByteArrayOutputStream();
+		var out = new DataOutputStream(result);
+
+		try {
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(VERSION);
+
+			out.writeShort(poolSize);
+			pool.writeTo(out);
+
+			out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+			out.writeShort(self);
+			out.writeShort(parent);
+
+			out.writeShort(interfaces.length);
+			for (var i : interfaces) out.writeShort(i);
+
+			out.writeShort(fieldCount);
+			fields.writeTo(out);
+
+			out.writeShort(methodCount);
+			methods.writeTo(out);
+
+			out.writeShort(0); //Attributes
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return result.toByteArray();
+	}
+
+	private interface EntryWriter {
+		void write(@NotNull DataOutputStream out) throws IOException;
+	}
+
+	public static class Code {
+		private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+		private int stack = 0;
+		private int maxStack = 0;
+		private final int maxLocals;
+
+		public Code(int maxLocals) {
+			this.maxLocals = maxLocals;
+		}
+
+		@NotNull
+		public Code op(int op, int stack, int... args) { //stack is the change of the operand stack size in slots
+			code.write(op);
+			for (var a : args) code.write(a);
+
+			this.stack += stack;
+			maxStack = Math.max(maxStack, this.stack);
+
+			return this;
+		}
+
+		@NotNull
+		public Code raw(int... bytes) {
+			for (var b : bytes) code.write(b);
+			return this;
+		}
+
+		@NotNull
+		public Code opIndex(int op, int stack, int index) {
+			return op(op, stack, (index >> 8) & 0xFF, index & 0xFF);
+		}
+
+		@NotNull
+		byte[] toByteArray() {
+			return code.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package de.mineking.math.compile;
+
+import org.jetbrains.annotations.NotNull;
+
+//Value and slope of a forward-mode derivative evaluation. Nodes write their result into the instance they are given instead of allocating one per call
+public class Dual {
+	private double value;
+	private double slope;
+
+	public double getValue() {
+		return value;
+	}
+
+	public double getSlope() {
+		return slope;
+	}
+
+	@NotNull
+	public Dual set(double value, double slope) {
+		this.value = value;
+		this.slope = slope;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return value + " + " + slope + "ε";
+	}
+}
@@ -0,0 +1,6 @@
+package de.mineking.math.compile;
+
+@FunctionalInterface
+public interface Evaluator {
+	double evaluate(double... variables);
+}
@@ -0,0 +1,130 @@
+package de.mineking.math.compile;
+
+import de.mineking.math.function.BinaryFunction;
+import de.mineking.math.function.UnaryFunction;
+import de.mineking.math.node.Node;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+//Reverse-mode differentiation over the instruction tape of a program: one forward pass records all register values, one backward sweep accumulates the adjoints of every variable
+public class GradientEvaluator {
+	private final Program program;
+
+	//Registers that do not depend on any variable are skipped in the backward sweep
+	private final boolean[] dependent;
+
+	//Each thread reuses its own tape, so evaluating does not allocate after the first call
+	private final ThreadLocal<Tape> tape;
+
+	public GradientEvaluator(@NotNull Program program) {
+		this.program = program;
+		this.dependent = new boolean[program.size];
+
+		for (int i = 0; i < program.size; i++) {
+			switch (program.operations[i]) {
+				case Program.CONSTANT -> dependent[i] = false;
+				case Program.VARIABLE -> dependent[i] = true;
+				case Program.UNARY -> dependent[i] = dependent[program.first[i]];
+				case Program.EVALUATOR -> throw new UnsupportedOperationException("Cannot differentiate instruction " + i);
+				default -> dependent[i] = dependent[program.first[i]] || dependent[program.second[i]];
+			}
+		}
+
+		this.tape = ThreadLocal.withInitial(() -> new Tape(program.size));
+	}
+
+	@NotNull
+	public static GradientEvaluator compile(@NotNull Node node, @NotNull List<String> variables) {
+		return new GradientEvaluator(Program.compile(node, variables));
+	}
+
+	@NotNull
+	public List<String> getVariables() {
+		return program.variables;
+	}
+
+	//Writes the partial derivatives with respect to all variables into out and returns the value at the point
+	public double gradient(@NotNull double[] point, @NotNull double[] out) {
+		if (point.length != program.variables.size()) throw new IllegalArgumentException("Expected " + program.variables.size() + " variables, got " + point.length);
+		if (out.length < program.variables.size()) throw new IllegalArgumentException("Gradient array is shorter than the variable count");
+
+		var tape = this.tape.get();
+		var values = tape.values;
+		var adjoints = tape.adjoints;
+
+		forward(point, values);
+
+		Arrays.fill(adjoints, 0);
+		Arrays.fill(out, 0, program.variables.size(), 0);
+
+		adjoints[program.size - 1] = 1;
+
+		for (int i = program.size - 1; i >= 0; i--) {
+			var adjoint = adjoints[i];
+			if (adjoint == 0 || !dependent[i]) continue;
+
+			var a = program.first[i];
+			var b = program.second[i];
+
+			switch (program.operations[i]) {
+				case Program.VARIABLE -> out[a] += adjoint;
+				case Program.ADD -> {
+					adjoints[a] += adjoint;
+					adjoints[b] += adjoint;
+				}
+				case Program.MULTIPLY -> {
+					adjoints[a] += adjoint * values[b];
+					adjoints[b] += adjoint * values[a];
+				}
+				case Program.DIVIDE -> {
+					adjoints[a] += adjoint / values[b];
+					adjoints[b] -= adjoint * values[i] / values[b];
+				}
+				case Program.POWER -> {
+					if (dependent[a]) adjoints[a] += adjoint * values[b] * Math.pow(values[a], values[b] - 1);
+					if (dependent[b]) adjoints[b] += adjoint * values[i] * Math.log(values[a]);
+				}
+				case Program.UNARY -> adjoints[a] += adjoint * ((UnaryFunction) program.functions[i]).derivative(values[a]);
+				case Program.BINARY -> {
+					var function = (BinaryFunction) program.functions[i];
+
+					if (dependent[a]) adjoints[a] += adjoint * function.derivative1(values[a], values[b]);
+					if (dependent[b]) adjoints[b] += adjoint * function.derivative2(values[a], values[b]);
+				}
+			}
+		}
+
+		return values[program.size - 1];
+	}
+
+	private void forward(@NotNull double[] point, @NotNull double[] values) {
+		for (int i = 0; i < program.size; i++) {
+			var a = program.first[i];
+			var b = program.second[i];
+
+			values[i] = switch (program.operations[i]) {
+				case Program.CONSTANT -> program.constants[i];
+				case Program.VARIABLE -> point[a];
+				case Program.ADD -> values[a] + values[b];
+				case Program.MULTIPLY -> values[a] * values[b];
+				case Program.DIVIDE -> values[a] / values[b];
+				case Program.POWER -> Math.pow(values[a], values[b]);
+				case Program.UNARY -> ((UnaryFunction) program.functions[i]).apply(values[a]);
+				case Program.BINARY -> ((BinaryFunction) program.functions[i]).apply(values[a], values[b]);
+				default -> throw new IllegalStateException();
+			};
+		}
+	}
+
+	private static class Tape {
+		private final double[] values;
+		private final double[] adjoints;
+
+		private Tape(int size) {
+			this.values = new double[size];
+			this.adjoints = new double[size];
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package de.mineking.math.compile;
+
+import de.mineking.math.MathFunction;
+import de.mineking.math.node.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Program {
+	final static int CONSTANT = 0;
+	final static int VARIABLE = 1;
+	final static int ADD = 2;
+	final static int MULTIPLY = 3;
+	final static int DIVIDE = 4;
+	final static int POWER = 5;
+	final static int UNARY = 6;
+	final static int BINARY = 7;
+	final static int EVALUATOR = 8;
+
+	final List<String> variables;
+
+	//Instruction i writes its result to register i, operands always refer to earlier instructions. Registers can be used by multiple instructions, so the program is a DAG
+	final int size;
+	final int deduplicated;
+	final int[] operations;
+	final int[] first;
+	final int[] second;
+	final double[] constants;
+	final Object[] functions;
+
+	private Program(@NotNull List<String> variables, @NotNull List<Instruction> instructions, int deduplicated) {
+		this.variables = Collections.unmodifiableList(variables);
+		this.size = instructions.size();
+		this.deduplicated = deduplicated;
+
+		this.operations = new int[size];
+		this.first = new int[size];
+		this.second = new int[size];
+		this.constants = new double[size];
+		this.functions = new Object[size];
+
+		for (int i = 0; i < size; i++) {
+			var instruction = instructions.get(i);
+
+			operations[i] = instruction.operation();
+			first[i] = instruction.first();
+			second[i] = instruction.second();
+			constants[i] = instruction.constant();
+			functions[i] = instruction.function();
+		}
+	}
+
+	@NotNull
+	public static Program compile(@NotNull Node node, @NotNull List<String> variables) {
+		var builder = new Builder(variables);
+		builder.emit(node);
+
+		return new Program(new ArrayList<>(variables), builder.instructions, builder.deduplicated);
+	}
+
+	@NotNull
+	public List<String> getVariables() {
+		return variables;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	//Number of nodes whose value is read from an existing register instead of being computed again
+	public int getDeduplicated() {
+		return deduplicated;
+	}
+
+	private record Instruction(int operation, int first, int second, double constant, Object function) {
+	}
+
+	private static class Builder {
+		private final List<String> variables;
+		private final List<Instruction> instructions = new ArrayList<>();
+
+		//Operands are registers that are already deduplicated, so equal instructions compute equal values. This finds shared subexpressions bottom-up without comparing node trees
+		private final Map<Instruction, Integer> registers = new HashMap<>();
+
+		//Subtrees that are referenced multiple times (derivatives reuse their input nodes) are only emitted once
+		private final Map<Node, Integer> emitted = new IdentityHashMap<>();
+
+		private int deduplicated = 0;
+
+		private Builder(@NotNull List<String> variables) {
+			this.variables = variables;
+		}
+
+		private int add(int operation, int first, int second, double constant, Object function) {
+			//Commutative operations are normalized, so a * b and b * a share a register
+			if ((operation == ADD || operation == MULTIPLY) && first > second) return add(operation, second, first, constant, function);
+
+			var instruction = new Instruction(operation, first, second, constant, function);
+
+			var existing = registers.get(instruction);
+			if (existing != null) {
+				deduplicated++;
+				return existing;
+			}
+
+			instructions.add(instruction);
+			registers.put(instruction, instructions.size() - 1);
+
+			return instructions.size() - 1;
+		}
+
+		private int emit(@NotNull Node node) {
+			var existing = emitted.get(node);
+			if (existing != null) {
+				deduplicated += node.getSize();
+				return existing;
+			}
+
+			var result = emitUncached(node);
+			emitted.put(node, result);
+
+			return result;
+		}
+
+		private int emitUncached(@NotNull Node node) {
+			if (node instanceof MathFunction f) return emit(f.getNode());
+			else if (node instanceof Constant c) return add(CONSTANT, -1, -1, c.value(), null);
+			else if (node instanceof ImaginaryUnit) return add(CONSTANT, -1, -1, Double.NaN, null);
+			else if (node instanceof Variable v) {
+				var index = variables.indexOf(v.getName());
+				if (index < 0) throw new UnsupportedOperationException("Unknown variable: " + v.getName());
+
+				return add(VARIABLE, index, -1, 0, null);
+			} else if (node instanceof Sum s) return chain(ADD, s.getNodes());
+			else if (node instanceof Product p) return chain(MULTIPLY, p.getNodes());
+			else if (node instanceof Fraction f) return add(DIVIDE, emit(f.getTop()), emit(f.getBottom()), 0, null);
+			else if (node instanceof Exponent e) return add(POWER, emit(e.getBase()), emit(e.getExponent()), 0, null);
+			else if (node instanceof UnaryFunctionCall u) return add(UNARY, emit(u.getParam()), -1, 0, u.getFunction());
+			else if (node instanceof BinaryFunctionCall b) return add(BINARY, emit(b.getParam1()), emit(b.getParam2()), 0, b.getFunction());
+
+			return add(EVALUATOR, -1, -1, 0, node.compile(variables));
+		}
+
+		private int chain(int operation, @NotNull List<Node> nodes) {
+			var result = emit(nodes.get(0));
+			for (int i = 1; i < nodes.size(); i++) result = add(operation, result, emit(nodes.get(i)), 0, null);
+
+			return result;
+		}
+	}
+}
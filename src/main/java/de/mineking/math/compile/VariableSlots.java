@@ -0,0 +1,87 @@
+package de.mineking.math.compile;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Variables are bound to fixed slots once, so evaluation only reads from a primitive array
+public class VariableSlots {
+	private final List<String> names;
+	private final Map<String, Integer> slots; //Part of the layout, so nodes resolve their slot without keeping state per layout
+	private final double[] values;
+
+	public VariableSlots(@NotNull List<String> names) {
+		this.names = List.copyOf(names);
+		this.slots = new HashMap<>(this.names.size() * 2);
+		this.values = new double[this.names.size()];
+
+		for (int i = this.names.size() - 1; i >= 0; i--) slots.put(this.names.get(i), i); //Backwards, so duplicate names resolve to their first slot
+
+		Arrays.fill(values, Double.NaN);
+	}
+
+	private VariableSlots(@NotNull VariableSlots layout) {
+		this.names = layout.names;
+		this.slots = layout.slots;
+		this.values = layout.values.clone();
+	}
+
+	@NotNull
+	public static VariableSlots of(@NotNull String... names) {
+		return new VariableSlots(Arrays.asList(names));
+	}
+
+	//Same layout, separate values. Slots are not thread-safe, so every thread should use its own copy
+	@NotNull
+	public VariableSlots copy() {
+		return new VariableSlots(this);
+	}
+
+	@NotNull
+	public List<String> getNames() {
+		return names;
+	}
+
+	public int getSlot(@NotNull String name) {
+		return slots.getOrDefault(name, -1);
+	}
+
+	//Slots that were resolved against this layout (or a copy of it) by Node.bind are used as they are, other layouts fall back to looking up the name
+	public int getSlot(@Nullable List<String> layout, int slot, @NotNull String name) {
+		return layout == names ? slot : getSlot(name);
+	}
+
+	public int size() {
+		return values.length;
+	}
+
+	public double get(int slot) {
+		return values[slot];
+	}
+
+	@NotNull
+	public VariableSlots set(int slot, double value) {
+		values[slot] = value;
+		return this;
+	}
+
+	@NotNull
+	public VariableSlots set(@NotNull String name, double value) {
+		var slot = getSlot(name);
+		if (slot < 0) throw new IllegalArgumentException("Unknown variable: " + name);
+
+		return set(slot, value);
+	}
+
+	@NotNull
+	public VariableSlots set(@NotNull double... values) {
+		if (values.length != this.values.length) throw new IllegalArgumentException("Expected " + this.values.length + " values, got " + values.length);
+
+		System.arraycopy(values, 0, this.values, 0, values.length);
+		return this;
+	}
+}
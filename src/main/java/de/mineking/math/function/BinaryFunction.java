@@ -13,6 +13,17 @@ public interface BinaryFunction {
 
 	double apply(double param1, double param2);
 
+	//Numeric partial derivatives used for forward-mode differentiation. Fall back to central differences
+	default double derivative1(double param1, double param2) {
+		var h = 1e-6 * Math.max(1, Math.abs(param1));
+		return (apply(param1 + h, param2) - apply(param1 - h, param2)) / (2 * h);
+	}
+
+	default double derivative2(double param1, double param2) {
+		var h = 1e-6 * Math.max(1, Math.abs(param2));
+		return (apply(param1, param2 + h) - apply(param1, param2 - h)) / (2 * h);
+	}
+
 	@Nullable
 	default Node simplify(@NotNull MathEnvironment environment, @NotNull Node param1, @NotNull Node param2) {
 		return null;
@@ -30,6 +41,11 @@ public interface BinaryFunction {
 
 	@NotNull
 	static BinaryFunction create(@NotNull String name, @NotNull DoubleBinaryOperator function, @Nullable BinarySimplificationFunction simplifier, @Nullable BinaryFunctionOperator derivative, @Nullable BinaryFunctionOperator integral) {
+		return create(name, function, null, null, simplifier, derivative, integral);
+	}
+
+	@NotNull
+	static BinaryFunction create(@NotNull String name, @NotNull DoubleBinaryOperator function, @Nullable DoubleBinaryOperator slope1, @Nullable DoubleBinaryOperator slope2, @Nullable BinarySimplificationFunction simplifier, @Nullable BinaryFunctionOperator derivative, @Nullable BinaryFunctionOperator integral) {
 		return new BinaryFunction() {
 			@NotNull
 			@Override
@@ -42,6 +58,18 @@ public interface BinaryFunction {
 				return function.applyAsDouble(param1, param2);
 			}
 
+			@Override
+			public double derivative1(double param1, double param2) {
+				if (slope1 != null) return slope1.applyAsDouble(param1, param2);
+				return BinaryFunction.super.derivative1(param1, param2);
+			}
+
+			@Override
+			public double derivative2(double param1, double param2) {
+				if (slope2 != null) return slope2.applyAsDouble(param1, param2);
+				return BinaryFunction.super.derivative2(param1, param2);
+			}
+
 			@Nullable
 			@Override
 			public Node simplify(@NotNull MathEnvironment environment, @NotNull Node param1, @NotNull Node param2) {
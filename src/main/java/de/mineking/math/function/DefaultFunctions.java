@@ -14,18 +14,20 @@ public class DefaultFunctions {
 	public static UnaryFunction sqrt;
 
 	static {
-		sin = UnaryFunction.create("sin", Math::sin, null,
+		sin = UnaryFunction.create("sin", Math::sin, Math::cos, null,
 				(variable, x) -> UnaryFunctionCall.create(cos, x),
 				(variable, x) -> UnaryFunctionCall.create(cos, x).negate()
 		);
-		cos = UnaryFunction.create("cos", Math::sin, null,
+		cos = UnaryFunction.create("cos", Math::cos, x -> -Math.sin(x), null,
 				(variable, x) -> UnaryFunctionCall.create(sin, x).negate(),
 				(variable, x) -> UnaryFunctionCall.create(sin, x)
 		);
-		tan = UnaryFunction.create("tan", Math::tan, null, null, null);
+		tan = UnaryFunction.create("tan", Math::tan, x -> 1 / (Math.cos(x) * Math.cos(x)), null, null, null);
 
 		log = BinaryFunction.create("log",
 				(p1, p2) -> Math.log(p2) / Math.log(p1),
+				(p1, p2) -> -Math.log(p2) / (p1 * Math.log(p1) * Math.log(p1)),
+				(p1, p2) -> 1 / (p2 * Math.log(p1)),
 				(environment, p1, p2) -> {
 					if (p1.equals(p2)) return Constant.ONE;
 					if (p2.equals(Constant.ONE)) return Constant.ZERO;
@@ -45,7 +47,7 @@ public class DefaultFunctions {
 						Exponent.create(UnaryFunctionCall.create(DefaultFunctions.ln, p1), Constant.TWO)
 				), null
 		);
-		ln = UnaryFunction.create("ln", Math::log,
+		ln = UnaryFunction.create("ln", Math::log, x -> 1 / x,
 				(environment, param) -> {
 					if (param.equals(Constant.E)) return Constant.ONE;
 					if (param.equals(Constant.ONE)) return Constant.ZERO;
@@ -62,11 +64,13 @@ public class DefaultFunctions {
 
 		root = BinaryFunction.create("√",
 				(p1, p2) -> Math.pow(p2, 1 / p1),
+				(p1, p2) -> -Math.pow(p2, 1 / p1) * Math.log(p2) / (p1 * p1),
+				(p1, p2) -> Math.pow(p2, 1 / p1 - 1) / p1,
 				(environment, p1, p2) -> Exponent.create(p2, Fraction.create(Constant.ONE, p1)).apply(environment),
 				(variable, p1, p2) -> Exponent.create(p2, Fraction.create(Constant.ONE, p1)).getDerivative(variable),
 				(variable, p1, p2) -> Exponent.create(p2, Fraction.create(Constant.ONE, p1)).getIntegral(variable)
 		);
-		sqrt = UnaryFunction.create("√", Math::sqrt,
+		sqrt = UnaryFunction.create("√", Math::sqrt, x -> 0.5 / Math.sqrt(x),
 				(environment, param) -> Exponent.create(param, Fraction.create(Constant.ONE, Constant.TWO)),
 				(variable, x) -> Exponent.create(x, Fraction.create(Constant.ONE, Constant.TWO)).getDerivative(variable),
 				(variable, x) -> Exponent.create(x, Fraction.create(Constant.ONE, Constant.TWO)).getIntegral(variable)
@@ -13,6 +13,12 @@ public interface UnaryFunction {
 
 	double apply(double param);
 
+	//Numeric derivative used for forward-mode differentiation. Falls back to a central difference
+	default double derivative(double param) {
+		var h = 1e-6 * Math.max(1, Math.abs(param));
+		return (apply(param + h) - apply(param - h)) / (2 * h);
+	}
+
 	@Nullable
 	default Node simplify(@NotNull MathEnvironment environment, @NotNull Node param) {
 		return null;
@@ -30,6 +36,11 @@ public interface UnaryFunction {
 
 	@NotNull
 	static UnaryFunction create(@NotNull String name, @NotNull DoubleUnaryOperator function, @Nullable UnarySimplificationFunction simplifier, @Nullable UnaryFunctionOperator derivative, @Nullable UnaryFunctionOperator integral) {
+		return create(name, function, null, simplifier, derivative, integral);
+	}
+
+	@NotNull
+	static UnaryFunction create(@NotNull String name, @NotNull DoubleUnaryOperator function, @Nullable DoubleUnaryOperator slope, @Nullable UnarySimplificationFunction simplifier, @Nullable UnaryFunctionOperator derivative, @Nullable UnaryFunctionOperator integral) {
 		return new UnaryFunction() {
 			@NotNull
 			@Override
@@ -42,6 +53,12 @@ public interface UnaryFunction {
 				return function.applyAsDouble(param);
 			}
 
+			@Override
+			public double derivative(double param) {
+				if (slope != null) return slope.applyAsDouble(param);
+				return UnaryFunction.super.derivative(param);
+			}
+
 			@Nullable
 			@Override
 			public Node simplify(@NotNull MathEnvironment environment, @NotNull Node param) {
@@ -0,0 +1,142 @@
+package de.mineking.math.metrics;
+
+import de.mineking.math.node.Node;
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+//Counts events into named counters that can be read as a map or published as MBean. Timers are exposed as total nanoseconds next to their count
+public class CounterMetrics implements MathMetrics {
+	private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+	private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+
+	private void add(@NotNull String name, long value) {
+		counters.computeIfAbsent(name, k -> new LongAdder()).add(value);
+	}
+
+	@Override
+	public void nodeCreated(@NotNull Class<? extends Node> type) {
+		add("node." + type.getSimpleName(), 1);
+	}
+
+	@Override
+	public void apply(@NotNull Class<? extends Node> type, int depth, long nanos) {
+		add("apply.count", 1);
+		add("apply.nanos", nanos);
+		maxDepth.accumulate(depth);
+	}
+
+	@Override
+	public void combineIteration() {
+		add("combine.iterations", 1);
+	}
+
+	@Override
+	public void removeFactor(boolean success) {
+		add(success ? "removeFactor.success" : "removeFactor.failure", 1);
+	}
+
+	@Override
+	public void fractionLimit() {
+		add("fraction.limit", 1);
+	}
+
+	@Override
+	public void cache(boolean hit) {
+		add(hit ? "cache.hits" : "cache.misses", 1);
+	}
+
+	@Override
+	public void derivative(long nanos) {
+		add("derivative.count", 1);
+		add("derivative.nanos", nanos);
+	}
+
+	@Override
+	public void integral(long nanos) {
+		add("integral.count", 1);
+		add("integral.nanos", nanos);
+	}
+
+	@NotNull
+	public Map<String, Long> snapshot() {
+		var result = new TreeMap<String, Long>();
+		counters.forEach((name, value) -> result.put(name, value.sum()));
+		result.put("apply.maxDepth", maxDepth.get());
+
+		return result;
+	}
+
+	public void reset() {
+		counters.clear();
+		maxDepth.reset();
+	}
+
+	@NotNull
+	public ObjectName register(@NotNull String name) throws JMException {
+		var objectName = new ObjectName(name);
+		ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), objectName);
+
+		return objectName;
+	}
+
+	//Attributes are created on demand, so every counter that was reported at least once is visible
+	private class Bean implements DynamicMBean {
+		@Override
+		public Object getAttribute(String attribute) throws AttributeNotFoundException {
+			var value = snapshot().get(attribute);
+			if (value == null) throw new AttributeNotFoundException(attribute);
+
+			return value;
+		}
+
+		@Override
+		public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+			throw new AttributeNotFoundException("Counters are read-only");
+		}
+
+		@Override
+		public AttributeList getAttributes(String[] attributes) {
+			var snapshot = snapshot();
+			var result = new AttributeList();
+
+			for (var attribute : attributes) {
+				var value = snapshot.get(attribute);
+				if (value != null) result.add(new Attribute(attribute, value));
+			}
+
+			return result;
+		}
+
+		@Override
+		public AttributeList setAttributes(AttributeList attributes) {
+			return new AttributeList();
+		}
+
+		@Override
+		public Object invoke(String action, Object[] params, String[] signature) throws ReflectionException {
+			if (action.equals("reset") && (params == null || params.length == 0)) {
+				reset();
+				return null;
+			}
+
+			throw new ReflectionException(new NoSuchMethodException(action));
+		}
+
+		@Override
+		public MBeanInfo getMBeanInfo() {
+			var attributes = snapshot().keySet().stream()
+					.map(name -> new MBeanAttributeInfo(name, "long", name, true, false, false))
+					.toArray(MBeanAttributeInfo[]::new);
+
+			var operations = new MBeanOperationInfo[] { new MBeanOperationInfo("reset", "Resets all counters", new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION) };
+			return new MBeanInfo(CounterMetrics.class.getName(), "Math engine metrics", attributes, null, operations, null);
+		}
+	}
+}
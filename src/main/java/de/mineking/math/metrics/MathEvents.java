@@ -0,0 +1,74 @@
+package de.mineking.math.metrics;
+
+import de.mineking.math.node.Node;
+import jdk.jfr.EventType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+//Wraps operations into flight recorder events. While an event type is disabled, this only costs a check of its enabled flag
+public class MathEvents {
+	private final static EventType SIMPLIFY = EventType.getEventType(SimplifyEvent.class);
+	private final static EventType CALCULUS = EventType.getEventType(CalculusEvent.class);
+
+	private final static ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+	public static boolean isSimplifyEnabled() {
+		return SIMPLIFY.isEnabled();
+	}
+
+	//The operation name is only built for recorded events
+	@NotNull
+	public static Node apply(@NotNull Node input, @NotNull Supplier<Node> action) {
+		if (!SIMPLIFY.isEnabled()) return action.get();
+		return record(new SimplifyEvent(), null, input, action);
+	}
+
+	@NotNull
+	public static Node simplify(@NotNull String operation, @NotNull Node input, @NotNull Supplier<Node> action) {
+		if (!SIMPLIFY.isEnabled()) return action.get();
+		return record(new SimplifyEvent(), operation, input, action);
+	}
+
+	@NotNull
+	public static Node calculus(@NotNull String operation, @NotNull Node input, @NotNull Supplier<Node> action) {
+		if (!CALCULUS.isEnabled()) return action.get();
+		return record(new CalculusEvent(), operation, input, action);
+	}
+
+	//Parsing throws a checked exception, so the parser drives its event itself
+	public static int enter() {
+		return ++depth.get()[0];
+	}
+
+	public static void exit() {
+		depth.get()[0]--;
+	}
+
+	@NotNull
+	private static Node record(@NotNull OperationEvent event, @Nullable String operation, @NotNull Node input, @NotNull Supplier<Node> action) {
+		var depth = enter();
+		event.begin();
+
+		Node result;
+		try {
+			result = action.get();
+		} finally {
+			event.end();
+			exit();
+		}
+
+		if (event.shouldCommit()) commit(event, operation == null ? input.getClass().getSimpleName() + ".apply" : operation, input.getSize(), result, depth);
+		return result;
+	}
+
+	//Sizes are only computed for events that pass the threshold, so callers should check shouldCommit first
+	public static void commit(@NotNull OperationEvent event, @NotNull String operation, int inputSize, @NotNull Node result, int depth) {
+		event.operation = operation;
+		event.inputSize = inputSize;
+		event.outputSize = result.getSize();
+		event.depth = depth;
+		event.commit();
+	}
+}
@@ -0,0 +1,36 @@
+package de.mineking.math.metrics;
+
+import de.mineking.math.node.Node;
+import org.jetbrains.annotations.NotNull;
+
+//Receives events from the simplification engine. All methods default to doing nothing, implementations have to be thread-safe
+public interface MathMetrics {
+	MathMetrics NONE = new MathMetrics() {
+	};
+
+	default void nodeCreated(@NotNull Class<? extends Node> type) {
+	}
+
+	//Called once a node finished applying. depth is 1 for the outermost apply call
+	default void apply(@NotNull Class<? extends Node> type, int depth, long nanos) {
+	}
+
+	default void combineIteration() {
+	}
+
+	default void removeFactor(boolean success) {
+	}
+
+	//A value could not be represented as fraction within the denominator limit and stays a decimal constant
+	default void fractionLimit() {
+	}
+
+	default void cache(boolean hit) {
+	}
+
+	default void derivative(long nanos) {
+	}
+
+	default void integral(long nanos) {
+	}
+}
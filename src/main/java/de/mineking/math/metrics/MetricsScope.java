@@ -0,0 +1,69 @@
+package de.mineking.math.metrics;
+
+import de.mineking.math.node.Node;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+//Binds metrics to the current thread, so code without access to an environment (node factories, derivatives) can report to it.
+//MathEnvironment enters its metrics automatically while applying. As long as no thread is inside a scope, reporting only costs a volatile read
+public class MetricsScope {
+	private final static AtomicInteger active = new AtomicInteger();
+	private final static ThreadLocal<MetricsScope> current = new ThreadLocal<>();
+
+	private final MathMetrics metrics;
+	private final MetricsScope parent;
+	private int depth;
+
+	private MetricsScope(@NotNull MathMetrics metrics, MetricsScope parent) {
+		this.metrics = metrics;
+		this.parent = parent;
+	}
+
+	@NotNull
+	public static MathMetrics current() {
+		if (active.get() == 0) return MathMetrics.NONE;
+
+		var scope = current.get();
+		return scope == null ? MathMetrics.NONE : scope.metrics;
+	}
+
+	public static <T> T run(@NotNull MathMetrics metrics, @NotNull Supplier<T> action) {
+		if (metrics == MathMetrics.NONE) return action.get();
+
+		var parent = current.get();
+		if (parent != null && parent.metrics == metrics) return action.get();
+
+		active.incrementAndGet();
+		current.set(new MetricsScope(metrics, parent));
+
+		try {
+			return action.get();
+		} finally {
+			if (parent == null) current.remove();
+			else current.set(parent);
+
+			active.decrementAndGet();
+		}
+	}
+
+	//Measures one apply call and tracks the nesting depth of apply calls on this thread
+	@NotNull
+	public static Node apply(@NotNull MathMetrics metrics, @NotNull Node node, @NotNull Supplier<Node> action) {
+		if (metrics == MathMetrics.NONE) return action.get();
+
+		return run(metrics, () -> {
+			var scope = current.get();
+			var depth = ++scope.depth;
+			var start = System.nanoTime();
+
+			try {
+				return action.get();
+			} finally {
+				metrics.apply(node.getClass(), depth, System.nanoTime() - start);
+				scope.depth--;
+			}
+		});
+	}
+}
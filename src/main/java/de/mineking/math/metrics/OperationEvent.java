@@ -0,0 +1,25 @@
+package de.mineking.math.metrics;
+
+import jdk.jfr.*;
+
+//Common fields of all flight recorder events of this library. Events are disabled by default and only recorded above their threshold, both can be changed in the recording settings
+@Category("MathUtils")
+@Enabled(false)
+@Threshold("10 ms")
+@StackTrace(false)
+public abstract class OperationEvent extends Event {
+	@Label("Operation")
+	String operation;
+
+	@Label("Input Size")
+	@Description("Number of nodes of the input, or characters for parsing")
+	int inputSize;
+
+	@Label("Output Size")
+	@Description("Number of nodes of the result")
+	int outputSize;
+
+	@Label("Depth")
+	@Description("Nesting depth of recorded operations on this thread, 1 for the outermost")
+	int depth;
+}
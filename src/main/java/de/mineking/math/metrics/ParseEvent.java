@@ -0,0 +1,9 @@
+package de.mineking.math.metrics;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.mineking.math.Parse")
+@Label("Parse")
+public class ParseEvent extends OperationEvent {
+}
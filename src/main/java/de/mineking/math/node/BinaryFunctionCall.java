@@ -1,10 +1,15 @@
 package de.mineking.math.node;
 
 import de.mineking.math.MathEnvironment;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.Evaluator;
+import de.mineking.math.compile.VariableSlots;
 import de.mineking.math.function.BinaryFunction;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
 
 public class BinaryFunctionCall implements Node {
 	private final BinaryFunction function;
@@ -17,14 +22,34 @@ public class BinaryFunctionCall implements Node {
 		this.param2 = param2;
 	}
 
+	@NotNull
+	public BinaryFunction getFunction() {
+		return function;
+	}
+
+	@NotNull
+	public Node getParam1() {
+		return param1;
+	}
+
+	@NotNull
+	public Node getParam2() {
+		return param2;
+	}
+
 	@NotNull
 	public static BinaryFunctionCall create(@NotNull BinaryFunction function, @NotNull Node param1, @NotNull Node param2) {
-		return new BinaryFunctionCall(function, param1, param2);
+		return NodeInterner.intern(new BinaryFunctionCall(function, param1, param2));
 	}
 
 	@NotNull
 	@Override
 	public Node apply(@NotNull MathEnvironment environment) {
+		return environment.cached(this, () -> applyUncached(environment));
+	}
+
+	@NotNull
+	private Node applyUncached(@NotNull MathEnvironment environment) {
 		var param1 = this.param1.apply(environment);
 		var param2 = this.param2.apply(environment);
 
@@ -50,6 +75,64 @@ public class BinaryFunctionCall implements Node {
 		return function.getIntegral(variable, param1, param2);
 	}
 
+	@NotNull
+	@Override
+	public DoubleUnaryOperator compile(@NotNull String variable) {
+		var function = this.function;
+		var param1 = this.param1.compile(variable);
+		var param2 = this.param2.compile(variable);
+
+		return x -> function.apply(param1.applyAsDouble(x), param2.applyAsDouble(x));
+	}
+
+	@NotNull
+	@Override
+	public Evaluator compile(@NotNull List<String> variables) {
+		var function = this.function;
+		var param1 = this.param1.compile(variables);
+		var param2 = this.param2.compile(variables);
+
+		return v -> function.apply(param1.evaluate(v), param2.evaluate(v));
+	}
+
+	@NotNull
+	@Override
+	public Node bind(@NotNull VariableSlots layout) {
+		return new BinaryFunctionCall(function, param1.bind(layout), param2.bind(layout));
+	}
+
+	@Override
+	public double evalDouble(@NotNull VariableSlots slots) {
+		try {
+			return function.apply(param1.evalDouble(slots), param2.evalDouble(slots));
+		} catch (RuntimeException e) {
+			return Double.NaN;
+		}
+	}
+
+	@Override
+	public void evalDual(@NotNull VariableSlots slots, int slot, @NotNull Dual result) {
+		param1.evalDual(slots, slot, result);
+		var p1 = result.getValue();
+		var dp1 = result.getSlope();
+
+		param2.evalDual(slots, slot, result);
+		var p2 = result.getValue();
+		var dp2 = result.getSlope();
+
+		try {
+			var slope = (dp1 == 0 ? 0 : function.derivative1(p1, p2) * dp1) + (dp2 == 0 ? 0 : function.derivative2(p1, p2) * dp2);
+			result.set(function.apply(p1, p2), slope);
+		} catch (RuntimeException e) {
+			result.set(Double.NaN, Double.NaN);
+		}
+	}
+
+	@Override
+	public int getSize() {
+		return 1 + param1.getSize() + param2.getSize();
+	}
+
 	@Override
 	public double getDegree(@NotNull String variable) {
 		return param1.getDegree(variable) == 0 && param2.getDegree(variable) == 0 ? 0 : Integer.MAX_VALUE;
@@ -62,7 +145,7 @@ public class BinaryFunctionCall implements Node {
 
 	@Override
 	public boolean equals(Object obj) {
-		return obj instanceof BinaryFunctionCall f && f.function.equals(function) && f.param1.equals(param1) && f.param2.equals(param2);
+		return this == obj || obj instanceof Node n && n.canonical() instanceof BinaryFunctionCall f && f.function.equals(function) && f.param1.equals(param1) && f.param2.equals(param2);
 	}
 
 	@Override
@@ -0,0 +1,98 @@
+package de.mineking.math.node;
+
+import de.mineking.math.MathFunction;
+import de.mineking.math.SimplificationBudget;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+import java.util.List;
+
+class Canonical {
+	//Total order on canonical nodes, used to sort the operands of commutative nodes
+	public final static Comparator<Node> ORDER = Canonical::compare;
+
+	//Canonical forms computed after the active budget ran out are only partially simplified and must not be stored on the node
+	static boolean isComplete() {
+		var budget = SimplificationBudget.active();
+		return budget == null || !budget.isExhausted();
+	}
+
+	@NotNull
+	public static Node normalize(@NotNull Node node) {
+		//Only rebuilds the structure, the node is expected to already be simplified
+		if (node instanceof MathFunction f) return normalize(f.getNode());
+
+		if (node instanceof Sum s) return s.isCanonical() ? s : Sum.createCanonical(sorted(s.getNodes()));
+		if (node instanceof Product p) return p.isCanonical() ? p : Product.createCanonical(sorted(p.getNodes()));
+		if (node instanceof Fraction f) return f.isCanonical() ? f : Fraction.createCanonical(normalize(f.getTop()), normalize(f.getBottom()));
+		if (node instanceof Exponent e) return e.isCanonical() ? e : Exponent.createCanonical(normalize(e.getBase()), normalize(e.getExponent()));
+
+		return node;
+	}
+
+	@NotNull
+	private static List<Node> sorted(@NotNull List<Node> nodes) {
+		return nodes.stream()
+				.map(Canonical::normalize)
+				.sorted(ORDER)
+				.toList();
+	}
+
+	private static int rank(@NotNull Node node) {
+		if (node instanceof Constant) return 0;
+		if (node instanceof ImaginaryUnit) return 1;
+		if (node instanceof Variable) return 2;
+		if (node instanceof UnaryFunctionCall) return 3;
+		if (node instanceof BinaryFunctionCall) return 4;
+		if (node instanceof Exponent) return 5;
+		if (node instanceof Fraction) return 6;
+		if (node instanceof Product) return 7;
+		if (node instanceof Sum) return 8;
+
+		return 9;
+	}
+
+	private static int compare(@NotNull Node a, @NotNull Node b) {
+		if (a == b) return 0;
+
+		a = a.canonical();
+		b = b.canonical();
+
+		var temp = Integer.compare(rank(a), rank(b));
+		if (temp != 0) return temp;
+
+		if (a instanceof Constant ca && b instanceof Constant cb) return Double.compare(ca.value(), cb.value());
+		if (a instanceof Variable va && b instanceof Variable vb) return va.getName().compareTo(vb.getName());
+		if (a instanceof UnaryFunctionCall ua && b instanceof UnaryFunctionCall ub) {
+			temp = ua.getFunction().getName().compareTo(ub.getFunction().getName());
+			return temp != 0 ? temp : compare(ua.getParam(), ub.getParam());
+		}
+		if (a instanceof BinaryFunctionCall ba && b instanceof BinaryFunctionCall bb) {
+			temp = ba.getFunction().getName().compareTo(bb.getFunction().getName());
+			if (temp == 0) temp = compare(ba.getParam1(), bb.getParam1());
+			return temp != 0 ? temp : compare(ba.getParam2(), bb.getParam2());
+		}
+		if (a instanceof Exponent ea && b instanceof Exponent eb) {
+			temp = compare(ea.getBase(), eb.getBase());
+			return temp != 0 ? temp : compare(ea.getExponent(), eb.getExponent());
+		}
+		if (a instanceof Fraction fa && b instanceof Fraction fb) {
+			temp = compare(fa.getTop(), fb.getTop());
+			return temp != 0 ? temp : compare(fa.getBottom(), fb.getBottom());
+		}
+		if (a instanceof Product pa && b instanceof Product pb) return compare(pa.getNodes(), pb.getNodes());
+		if (a instanceof Sum sa && b instanceof Sum sb) return compare(sa.getNodes(), sb.getNodes());
+
+		//Unknown node types: hashes may collide for distinct nodes, so distinct nodes are ordered by their string form first. Only distinct nodes that also print the same stay unordered
+		temp = a.getClass().getName().compareTo(b.getClass().getName());
+		if (temp == 0 && !a.equals(b)) temp = a.toString().compareTo(b.toString());
+		return temp != 0 ? temp : Integer.compare(a.hashCode(), b.hashCode());
+	}
+
+	private static int compare(@NotNull List<Node> a, @NotNull List<Node> b) {
+		var temp = Integer.compare(a.size(), b.size());
+
+		for (int i = 0; temp == 0 && i < a.size(); i++) temp = compare(a.get(i), b.get(i));
+		return temp;
+	}
+}
@@ -2,13 +2,20 @@ package de.mineking.math.node;
 
 import de.mineking.math.FactorCondition;
 import de.mineking.math.MathEnvironment;
+import de.mineking.math.Rational;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.Evaluator;
+import de.mineking.math.compile.VariableSlots;
+import de.mineking.math.metrics.MetricsScope;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
 
 public class Constant implements Node {
 	public final static DecimalFormat format = new DecimalFormat();
@@ -31,20 +38,35 @@ public class Constant implements Node {
 	public final static Constant E = create(Math.E, false);
 	public final static Constant PI = create(Math.PI, false);
 
+	private final static long MAX_DENOMINATOR = 1_000_000;
+	private final static int FRACTION_LIMIT = 500;
+
 	private final double value;
 	private final boolean shouldCombine;
+	private final Rational rational;
 
-	Constant(double value, boolean shouldCombine) {
+	Constant(double value, boolean shouldCombine, @Nullable Rational rational) {
 		this.value = value;
 		this.shouldCombine = shouldCombine;
+		this.rational = rational;
 	}
 
 	public boolean shouldCombine() {
 		return shouldCombine;
 	}
 
+	//Exact value or null if the constant is irrational or not combinable
+	@Nullable
+	public Rational getRational() {
+		return rational;
+	}
+
 	@NotNull
 	public static Constant create(double value, boolean shouldCombine) {
+		//This is the only place where doubles are turned into rationals. Values within a few ulps of a simple fraction are snapped to it
+		var rational = shouldCombine ? Rational.approximate(value, MAX_DENOMINATOR, 4 * Math.ulp(value)) : null;
+		if (rational != null) value = rational.doubleValue();
+
 		if (Double.isNaN(value) && UNDEFINED != null) return UNDEFINED;
 		if (value == Double.POSITIVE_INFINITY && POSITIVE_INFINITY != null) return POSITIVE_INFINITY;
 		if (value == Double.NEGATIVE_INFINITY && NEGATIVE_INFINITY != null) return NEGATIVE_INFINITY;
@@ -57,7 +79,7 @@ public class Constant implements Node {
 		if (value == Math.E && E != null) return E;
 		if (value == Math.PI && PI != null) return PI;
 
-		return new Constant(value, shouldCombine);
+		return NodeInterner.intern(new Constant(value, shouldCombine, rational));
 	}
 
 	@NotNull
@@ -65,13 +87,19 @@ public class Constant implements Node {
 		return create(value, true);
 	}
 
+	@NotNull
+	public static Constant create(@NotNull Rational value) {
+		var temp = create(value.doubleValue());
+		if (value.equals(temp.rational)) return temp;
+
+		return NodeInterner.intern(new Constant(value.doubleValue(), true, value));
+	}
+
 	@NotNull
 	@Override
 	public Node apply(@NotNull MathEnvironment environment) {
-		var fraction = environment.createFraction(value);
-
-		if (!environment.isEvaluate() && fraction instanceof Fraction f && (f.getTop() instanceof Constant ct && ct.value < 500) && (f.getBottom() instanceof Constant cb && cb.value < 500)) return fraction;
-		return this;
+		if (environment.isEvaluate() || rational == null || rational.isInteger()) return this;
+		return fraction(rational, FRACTION_LIMIT);
 	}
 
 	@Override
@@ -91,6 +119,30 @@ public class Constant implements Node {
 		return Product.create(this, Variable.create(variable));
 	}
 
+	@NotNull
+	@Override
+	public DoubleUnaryOperator compile(@NotNull String variable) {
+		var value = this.value;
+		return x -> value;
+	}
+
+	@NotNull
+	@Override
+	public Evaluator compile(@NotNull List<String> variables) {
+		var value = this.value;
+		return v -> value;
+	}
+
+	@Override
+	public double evalDouble(@NotNull VariableSlots slots) {
+		return value;
+	}
+
+	@Override
+	public void evalDual(@NotNull VariableSlots slots, int slot, @NotNull Dual result) {
+		result.set(value, 0);
+	}
+
 	@Override
 	public double getDegree(@NotNull String variable) {
 		return 0;
@@ -111,18 +163,39 @@ public class Constant implements Node {
 	public Node removeFactor(@NotNull Node node, @NotNull MathEnvironment environment) {
 		if (!node.hasValue(environment)) return null;
 
+		var divisor = ConstantFolder.exact(node);
+		if (rational != null && divisor != null && !divisor.isZero()) {
+			var temp = rational.divide(divisor);
+			if (environment.isEvaluate() || temp.isInteger()) return create(temp);
+
+			if (environment.hasFactorCondition(FactorCondition.CONSTANT_FRACTION) && fraction(temp, Integer.MAX_VALUE) instanceof Fraction f) return f;
+			return Node.super.removeFactor(node, environment);
+		}
+
 		var temp = value / node.value();
-		if (environment.isEvaluate()) return create(value);
+		if (environment.isEvaluate()) return create(temp);
 
 		if (temp == (int) temp) return create(temp);
-		if (environment.getFactorConditions().contains(FactorCondition.CONSTANT_FRACTION) && environment.createFraction(temp) instanceof Fraction f) return f;
+		if (environment.hasFactorCondition(FactorCondition.CONSTANT_FRACTION) && environment.createFraction(temp) instanceof Fraction f) return f;
 
 		return Node.super.removeFactor(node, environment);
 	}
 
+	@NotNull
+	private static Node fraction(@NotNull Rational value, long limit) {
+		var numerator = value.getNumerator();
+		var denominator = value.getDenominator();
+
+		if (numerator.bitLength() > 53 || denominator.bitLength() > 53 || numerator.longValue() >= limit || denominator.longValue() >= limit) {
+			MetricsScope.current().fractionLimit();
+			return create(value);
+		}
+		return Fraction.create(create(numerator.doubleValue()), create(denominator.doubleValue()));
+	}
+
 	@Override
 	public boolean equals(Object obj) {
-		return obj instanceof Constant c && c.value == value;
+		return this == obj || obj instanceof Node n && n.canonical() instanceof Constant c && c.value == value;
 	}
 
 	@Override
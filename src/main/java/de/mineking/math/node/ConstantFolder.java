@@ -0,0 +1,74 @@
+package de.mineking.math.node;
+
+import de.mineking.math.Rational;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+//Folds constants of a sum or product. Folding stays exact as long as every operand is rational and only falls back to doubles once an inexact operand shows up
+class ConstantFolder {
+	private final static double EXACT_DOUBLE = 1L << 53;
+
+	private final boolean product;
+	private final boolean evaluate;
+
+	private Rational exact;
+	private double approximate;
+	private boolean inexact;
+	private boolean fraction;
+
+	ConstantFolder(boolean product, boolean evaluate) {
+		this.product = product;
+		this.evaluate = evaluate;
+		this.exact = product ? Rational.ONE : Rational.ZERO;
+	}
+
+	@Nullable
+	static Rational exact(@NotNull Node node) {
+		if (node instanceof Constant c) return c.getRational();
+
+		if (node instanceof Fraction f && f.getTop() instanceof Constant top && f.getBottom() instanceof Constant bottom) {
+			if (top.getRational() == null || bottom.getRational() == null || bottom.getRational().isZero()) return null;
+			return top.getRational().divide(bottom.getRational());
+		}
+
+		return null;
+	}
+
+	//Constant fractions are folded even if the environment would not evaluate them, because doing so is exact
+	boolean fold(@NotNull Node node, boolean hasValue) {
+		var rational = exact(node);
+		if (rational == null && !hasValue) return false;
+
+		if (node instanceof Fraction) fraction = true;
+
+		if (rational != null && !inexact) exact = product ? exact.multiply(rational) : exact.add(rational);
+		else {
+			if (!inexact) approximate = exact.doubleValue();
+			inexact = true;
+
+			approximate = product ? approximate * node.value() : approximate + node.value();
+		}
+
+		return true;
+	}
+
+	void negate() {
+		if (inexact) approximate = -approximate;
+		else exact = exact.negate();
+	}
+
+	//Folded constant fractions are emitted as fraction again, so folding the result a second time is stable
+	@NotNull
+	Node result() {
+		if (inexact) return Constant.create(approximate);
+
+		if (fraction && !evaluate && !exact.isInteger()) {
+			var numerator = exact.getNumerator().doubleValue();
+			var denominator = exact.getDenominator().doubleValue();
+
+			if (Math.abs(numerator) < EXACT_DOUBLE && denominator < EXACT_DOUBLE) return Fraction.create(Constant.create(numerator), Constant.create(denominator));
+		}
+
+		return Constant.create(exact);
+	}
+}
@@ -2,6 +2,9 @@ package de.mineking.math.node;
 
 import de.mineking.math.FactorCondition;
 import de.mineking.math.MathEnvironment;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.Evaluator;
+import de.mineking.math.compile.VariableSlots;
 import de.mineking.math.function.DefaultFunctions;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -9,11 +12,15 @@ import org.jetbrains.annotations.Nullable;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
 
 public class Exponent implements Node {
 	private final Node base;
 	private final Node exponent;
 
+	private Node canonical;
+	private int hash;
+
 	Exponent(@NotNull Node base, @NotNull Node exponent) {
 		this.base = base;
 		this.exponent = exponent;
@@ -41,12 +48,25 @@ public class Exponent implements Node {
 
 		if (base instanceof Exponent e) return create(e.base, Product.create(e.exponent, exponent));
 
-		return new Exponent(base, exponent);
+		return NodeInterner.intern(new Exponent(base, exponent));
+	}
+
+	@NotNull
+	static Exponent createCanonical(@NotNull Node base, @NotNull Node exponent) {
+		var result = new Exponent(base, exponent);
+		result.canonical = result;
+
+		return result;
 	}
 
 	@NotNull
 	@Override
 	public Node apply(@NotNull MathEnvironment environment) {
+		return environment.cached(this, () -> applyUncached(environment));
+	}
+
+	@NotNull
+	private Node applyUncached(@NotNull MathEnvironment environment) {
 		var a = this.base.apply(environment);
 		var b = this.exponent.apply(environment);
 
@@ -88,6 +108,57 @@ public class Exponent implements Node {
 		throw new UnsupportedOperationException();
 	}
 
+	@NotNull
+	@Override
+	public DoubleUnaryOperator compile(@NotNull String variable) {
+		var base = this.base.compile(variable);
+		var exponent = this.exponent.compile(variable);
+
+		return x -> Math.pow(base.applyAsDouble(x), exponent.applyAsDouble(x));
+	}
+
+	@NotNull
+	@Override
+	public Evaluator compile(@NotNull List<String> variables) {
+		var base = this.base.compile(variables);
+		var exponent = this.exponent.compile(variables);
+
+		return v -> Math.pow(base.evaluate(v), exponent.evaluate(v));
+	}
+
+	@NotNull
+	@Override
+	public Node bind(@NotNull VariableSlots layout) {
+		return new Exponent(base.bind(layout), exponent.bind(layout));
+	}
+
+	@Override
+	public double evalDouble(@NotNull VariableSlots slots) {
+		return Math.pow(base.evalDouble(slots), exponent.evalDouble(slots));
+	}
+
+	@Override
+	public void evalDual(@NotNull VariableSlots slots, int slot, @NotNull Dual result) {
+		base.evalDual(slots, slot, result);
+		var a = result.getValue();
+		var da = result.getSlope();
+
+		exponent.evalDual(slots, slot, result);
+		var b = result.getValue();
+		var db = result.getSlope();
+
+		var value = Math.pow(a, b);
+
+		//The general rule needs ln(a), so constant exponents use the power rule which also works for negative bases
+		if (db == 0) result.set(value, da == 0 ? 0 : b * Math.pow(a, b - 1) * da);
+		else result.set(value, value * (db * Math.log(a) + b * da / a));
+	}
+
+	@Override
+	public int getSize() {
+		return 1 + base.getSize() + exponent.getSize();
+	}
+
 	@Override
 	public double getDegree(@NotNull String variable) {
 		var bd = base.getDegree(variable);
@@ -114,7 +185,7 @@ public class Exponent implements Node {
 	public Node removeFactor(@NotNull Node node, @NotNull MathEnvironment environment) {
 		if (equals(node)) return Constant.ONE;
 
-		if (exponent.isConstant() || environment.getFactorConditions().contains(FactorCondition.FUNCTION_EXPONENT)) {
+		if (exponent.isConstant() || environment.hasFactorCondition(FactorCondition.FUNCTION_EXPONENT)) {
 			if (node.equals(base)) return create(base, Sum.create(exponent, Constant.NEGATIVE));
 			if (node instanceof Exponent e && e.getBase().equals(base)) return create(base, Sum.create(exponent, e.getExponent().negate()));
 		}
@@ -122,22 +193,41 @@ public class Exponent implements Node {
 		return Node.super.removeFactor(node, environment);
 	}
 
+	boolean isCanonical() {
+		return canonical == this;
+	}
+
+	@NotNull
+	@Override
+	public Node canonical() {
+		//Benign race: concurrent callers compute equal canonical forms
+		var temp = canonical;
+		if (temp == null) {
+			temp = Canonical.normalize(simplify());
+			if (Canonical.isComplete()) canonical = temp;
+		}
+
+		return temp;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
+		if (this == obj) return true;
 		if (!(obj instanceof Node n)) return false;
-		var a = simplify();
-		var b = n.simplify();
 
-		if (a instanceof Exponent ea) {
-			if (b instanceof Exponent eb) return ea.base.equals(eb.base) && ea.exponent.equals(eb.exponent);
-			else return false;
-		}
-		return a.equals(b);
+		var a = canonical();
+		if (a != this) return a.equals(obj);
+
+		return n.canonical() instanceof Exponent e && base.equals(e.base) && exponent.equals(e.exponent);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash("exponent", base, exponent);
+		var a = canonical();
+		if (a != this) return a.hashCode();
+
+		if (hash == 0) hash = Objects.hash("exponent", base, exponent);
+		return hash;
 	}
 
 	@Override
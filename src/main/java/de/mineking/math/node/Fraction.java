@@ -1,16 +1,25 @@
 package de.mineking.math.node;
 
 import de.mineking.math.MathEnvironment;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.Evaluator;
+import de.mineking.math.compile.VariableSlots;
+import de.mineking.math.metrics.MetricsScope;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
 
 public class Fraction implements Node {
 	private final Node top;
 	private final Node bottom;
 
+	private Node canonical;
+	private int hash;
+
 	Fraction(@NotNull Node top, @NotNull Node bottom) {
 		this.top = top;
 		this.bottom = bottom;
@@ -36,7 +45,7 @@ public class Fraction implements Node {
 		if (top.equals(bottom)) return Constant.ONE;
 		if (bottom == Constant.ZERO) return top.isNegative() ? Constant.NEGATIVE_INFINITY : Constant.POSITIVE_INFINITY;
 
-		return new Fraction(top, bottom);
+		return NodeInterner.intern(new Fraction(top, bottom));
 	}
 
 	@NotNull
@@ -57,7 +66,10 @@ public class Fraction implements Node {
 			var middle_top = lower_top + upper_top;
 			var middle_bottom = lower_bottom + upper_bottom;
 
-			if (middle_top > 500 || middle_bottom > 500) return Constant.create(value + n);
+			if (middle_top > 500 || middle_bottom > 500) {
+				MetricsScope.current().fractionLimit();
+				return Constant.create(value + n);
+			}
 
 			if (middle_bottom * (value + error) < middle_top) {
 				upper_top = middle_top;
@@ -69,10 +81,27 @@ public class Fraction implements Node {
 		}
 	}
 
+	@NotNull
+	static Fraction createCanonical(@NotNull Node top, @NotNull Node bottom) {
+		var result = new Fraction(top, bottom);
+		result.canonical = result;
+
+		return result;
+	}
+
 	@NotNull
 	@Override
 	public Node apply(@NotNull MathEnvironment environment) {
+		return environment.cached(this, () -> applyUncached(environment));
+	}
+
+	@NotNull
+	private Node applyUncached(@NotNull MathEnvironment environment) {
 		var temp = create(this.top.apply(environment), this.bottom.apply(environment));
+		if (environment.isEvaluate()) {
+			var exact = ConstantFolder.exact(temp);
+			if (exact != null) return Constant.create(exact);
+		}
 
 		if (temp instanceof Fraction fraction) {
 			var map = new HashMap<Node, Node>();
@@ -117,8 +146,56 @@ public class Fraction implements Node {
 		throw new UnsupportedOperationException(); //TODO
 	}
 
+	@NotNull
+	@Override
+	public DoubleUnaryOperator compile(@NotNull String variable) {
+		var top = this.top.compile(variable);
+		var bottom = this.bottom.compile(variable);
+
+		return x -> top.applyAsDouble(x) / bottom.applyAsDouble(x);
+	}
+
+	@NotNull
+	@Override
+	public Evaluator compile(@NotNull List<String> variables) {
+		var top = this.top.compile(variables);
+		var bottom = this.bottom.compile(variables);
+
+		return v -> top.evaluate(v) / bottom.evaluate(v);
+	}
+
+	@NotNull
+	@Override
+	public Node bind(@NotNull VariableSlots layout) {
+		return new Fraction(top.bind(layout), bottom.bind(layout));
+	}
+
+	@Override
+	public double evalDouble(@NotNull VariableSlots slots) {
+		return top.evalDouble(slots) / bottom.evalDouble(slots);
+	}
+
+	@Override
+	public void evalDual(@NotNull VariableSlots slots, int slot, @NotNull Dual result) {
+		top.evalDual(slots, slot, result);
+		var a = result.getValue();
+		var da = result.getSlope();
+
+		bottom.evalDual(slots, slot, result);
+		var b = result.getValue();
+		var db = result.getSlope();
+
+		result.set(a / b, (da * b - a * db) / (b * b));
+	}
+
+	@Override
+	public int getSize() {
+		return 1 + top.getSize() + bottom.getSize();
+	}
+
 	@Override
 	public double getDegree(@NotNull String variable) {
+		if (bottom.getDegree(variable) == 0) return top.getDegree(variable);
 		return Node.super.getDegree(variable);
 	}
 
@@ -127,6 +204,12 @@ public class Fraction implements Node {
 		return top.isConstant() && bottom.isConstant();
 	}
 
+	@NotNull
+	@Override
+	public Node negate() {
+		return create(top.negate(), bottom); //The default would wrap the fraction into a product, which flips the sign back through Product#process forever
+	}
+
 	@Override
 	public boolean isNegative() {
 		return top.isNegative() || bottom.isNegative(); //Both negative is already canceled out in #create
@@ -147,22 +230,41 @@ public class Fraction implements Node {
 		return Node.super.removeFactor(node, environment);
 	}
 
+	boolean isCanonical() {
+		return canonical == this;
+	}
+
+	@NotNull
+	@Override
+	public Node canonical() {
+		//Benign race: concurrent callers compute equal canonical forms
+		var temp = canonical;
+		if (temp == null) {
+			temp = Canonical.normalize(simplify());
+			if (Canonical.isComplete()) canonical = temp;
+		}
+
+		return temp;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
+		if (this == obj) return true;
 		if (!(obj instanceof Node n)) return false;
-		var a = simplify();
-		var b = n.simplify();
 
-		if (a instanceof Fraction fa) {
-			if (b instanceof Fraction fb) return fa.top.equals(fb.top) && fa.bottom.equals(fb.bottom);
-			else return false;
-		}
-		return a.equals(b);
+		var a = canonical();
+		if (a != this) return a.equals(obj);
+
+		return n.canonical() instanceof Fraction f && top.equals(f.top) && bottom.equals(f.bottom);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash("fraction", top, bottom);
+		var a = canonical();
+		if (a != this) return a.hashCode();
+
+		if (hash == 0) hash = Objects.hash("fraction", top, bottom);
+		return hash;
 	}
 
 	@Override
@@ -1,9 +1,15 @@
 package de.mineking.math.node;
 
 import de.mineking.math.MathEnvironment;
+import de.mineking.math.compile.Evaluator;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
 public class ImaginaryUnit implements Node {
+	public final static ImaginaryUnit I = new ImaginaryUnit();
+
 	@NotNull
 	@Override
 	public Node apply(@NotNull MathEnvironment environment) {
@@ -22,6 +28,18 @@ public class ImaginaryUnit implements Node {
 		return Product.create(this, Variable.create(variable));
 	}
 
+	@NotNull
+	@Override
+	public DoubleUnaryOperator compile(@NotNull String variable) {
+		return x -> Double.NaN;
+	}
+
+	@NotNull
+	@Override
+	public Evaluator compile(@NotNull List<String> variables) {
+		return v -> Double.NaN;
+	}
+
 	@Override
 	public double getDegree(@NotNull String variable) {
 		return 0;
@@ -1,11 +1,16 @@
 package de.mineking.math.node;
 
 import de.mineking.math.MathEnvironment;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.Evaluator;
+import de.mineking.math.compile.VariableSlots;
+import de.mineking.math.metrics.MathEvents;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.DoubleUnaryOperator;
 
 public interface Node {
 	String defaultVariable = "x";
@@ -42,6 +47,36 @@ public interface Node {
 		throw new UnsupportedOperationException();
 	}
 
+	@NotNull
+	default DoubleUnaryOperator compile(@NotNull String variable) {
+		throw new UnsupportedOperationException();
+	}
+
+	@NotNull
+	default Evaluator compile(@NotNull List<String> variables) {
+		throw new UnsupportedOperationException();
+	}
+
+	//Numeric tree walk that does not create nodes or environments. Unknown variables and unsupported nodes evaluate to NaN
+	default double evalDouble(@NotNull VariableSlots slots) {
+		return Double.NaN;
+	}
+
+	//Copy of the tree with every variable resolved to its slot in the layout, so evalDouble and evalDual on slots of that layout only read the values array
+	@NotNull
+	default Node bind(@NotNull VariableSlots layout) {
+		return this;
+	}
+
+	//Forward-mode derivative with respect to the variable in the given slot. Children write into the same result, so no intermediate objects are created
+	default void evalDual(@NotNull VariableSlots slots, int slot, @NotNull Dual result) {
+		result.set(Double.NaN, Double.NaN);
+	}
+
+	default int getSize() {
+		return 1;
+	}
+
 	default double getDegree(@NotNull String variable) {
 		return Integer.MAX_VALUE;
 	}
@@ -63,6 +98,12 @@ public interface Node {
 		return Collections.singletonList(this);
 	}
 
+	//Factors worth trying to pull out of a sum. Unlike getFactors, these do not have to multiply back to this node
+	@NotNull
+	default List<Node> getFactorCandidates(@NotNull MathEnvironment environment) {
+		return getFactors(environment);
+	}
+
 	@Nullable
 	default Node removeFactor(@NotNull Node node, @NotNull MathEnvironment environment) {
 		if (equals(node)) return Constant.ONE;
@@ -80,8 +121,13 @@ public interface Node {
 		throw new UnsupportedOperationException();
 	}
 
+	@NotNull
+	default Node canonical() {
+		return this;
+	}
+
 	@NotNull
 	default Node simplify() {
-		return apply(MathEnvironment.DEFAULT);
+		return MathEvents.simplify("simplify", this, () -> apply(MathEnvironment.implicit()));
 	}
 }
@@ -0,0 +1,185 @@
+package de.mineking.math.node;
+
+import de.mineking.math.metrics.MetricsScope;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class NodeInterner {
+	private static volatile boolean enabled = false;
+
+	private final static ConcurrentHashMap<Key, Entry> table = new ConcurrentHashMap<>();
+	private final static ReferenceQueue<Node> queue = new ReferenceQueue<>();
+
+	private final static LongAdder hits = new LongAdder();
+	private final static LongAdder misses = new LongAdder();
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(boolean enabled) {
+		NodeInterner.enabled = enabled;
+	}
+
+	@NotNull
+	public static Statistics getStatistics() {
+		expunge();
+		return new Statistics(hits.sum(), misses.sum(), table.size());
+	}
+
+	public static void clear() {
+		table.clear();
+		hits.reset();
+		misses.reset();
+	}
+
+	@NotNull
+	@SuppressWarnings("unchecked")
+	public static <T extends Node> T intern(@NotNull T node) {
+		MetricsScope.current().nodeCreated(node.getClass()); //Every node factory passes through here
+		if (!enabled) return node;
+
+		var key = key(node);
+		if (key == null) return node;
+
+		expunge();
+
+		while (true) {
+			var entry = table.get(key);
+
+			if (entry != null) {
+				var existing = entry.get();
+				if (existing != null) {
+					hits.increment();
+					return (T) existing; //Keys include the node class, so the existing node has the same type
+				}
+
+				table.remove(key, entry);
+			}
+
+			if (table.putIfAbsent(key, new Entry(node, key, queue)) == null) {
+				misses.increment();
+				return node;
+			}
+		}
+	}
+
+	//Structural hash and equality that work without interning: children are compared recursively instead of by identity. Functions and unknown node types are still compared by identity
+	public static int structuralHash(@NotNull Node node) {
+		if (node instanceof Constant c) return Objects.hash(Constant.class, Double.doubleToLongBits(c.value()), c.shouldCombine(), c.getRational());
+		if (node instanceof Variable v) return Objects.hash(Variable.class, v.getName());
+
+		var children = children(node);
+		if (children == null) return System.identityHashCode(node);
+
+		var hash = node.getClass().hashCode();
+		for (var child : children) hash = hash * 31 + (child instanceof Node n ? structuralHash(n) : System.identityHashCode(child));
+
+		return hash;
+	}
+
+	public static boolean structurallyEqual(@NotNull Node a, @NotNull Node b) {
+		if (a == b) return true;
+		if (a.getClass() != b.getClass()) return false;
+
+		if (a instanceof Constant ca && b instanceof Constant cb) return Double.doubleToLongBits(ca.value()) == Double.doubleToLongBits(cb.value()) && ca.shouldCombine() == cb.shouldCombine() && Objects.equals(ca.getRational(), cb.getRational());
+		if (a instanceof Variable va && b instanceof Variable vb) return va.getName().equals(vb.getName());
+
+		var ac = children(a);
+		var bc = children(b);
+		if (ac == null || bc == null || ac.length != bc.length) return false;
+
+		for (int i = 0; i < ac.length; i++) {
+			if (ac[i] instanceof Node an && bc[i] instanceof Node bn ? !structurallyEqual(an, bn) : ac[i] != bc[i]) return false;
+		}
+
+		return true;
+	}
+
+	private static Object[] children(@NotNull Node node) {
+		if (node instanceof Sum s) return s.getNodes().toArray();
+		if (node instanceof Product p) return p.getNodes().toArray();
+		if (node instanceof Fraction f) return new Object[] { f.getTop(), f.getBottom() };
+		if (node instanceof Exponent e) return new Object[] { e.getBase(), e.getExponent() };
+		if (node instanceof UnaryFunctionCall u) return new Object[] { u.getFunction(), u.getParam() };
+		if (node instanceof BinaryFunctionCall b) return new Object[] { b.getFunction(), b.getParam1(), b.getParam2() };
+
+		return null;
+	}
+
+	private static void expunge() {
+		for (var reference = queue.poll(); reference != null; reference = queue.poll()) {
+			var entry = (Entry) reference;
+			table.remove(entry.key, entry);
+		}
+	}
+
+	private static Key key(@NotNull Node node) {
+		//Children are interned before their parents, so comparing them by identity is enough to compare whole subtrees. Functions are compared by identity as well, because their equals only compares names.
+		if (node instanceof Constant c) return new Key(Constant.class, Arrays.asList(Double.doubleToLongBits(c.value()), c.shouldCombine(), c.getRational()));
+		if (node instanceof Variable v) return new Key(Variable.class, v.getName());
+		if (node instanceof Sum s) return new Key(Sum.class, null, s.getNodes().toArray());
+		if (node instanceof Product p) return new Key(Product.class, null, p.getNodes().toArray());
+		if (node instanceof Fraction f) return new Key(Fraction.class, null, f.getTop(), f.getBottom());
+		if (node instanceof Exponent e) return new Key(Exponent.class, null, e.getBase(), e.getExponent());
+		if (node instanceof UnaryFunctionCall u) return new Key(UnaryFunctionCall.class, null, u.getFunction(), u.getParam());
+		if (node instanceof BinaryFunctionCall b) return new Key(BinaryFunctionCall.class, null, b.getFunction(), b.getParam1(), b.getParam2());
+
+		return null;
+	}
+
+	public record Statistics(long hits, long misses, int size) {
+		public double hitRate() {
+			var total = hits + misses;
+			return total == 0 ? 0 : (double) hits / total;
+		}
+	}
+
+	private static class Entry extends WeakReference<Node> {
+		private final Key key;
+
+		private Entry(@NotNull Node node, @NotNull Key key, @NotNull ReferenceQueue<Node> queue) {
+			super(node, queue);
+			this.key = key;
+		}
+	}
+
+	private static class Key {
+		private final Class<?> type;
+		private final Object value;
+		private final Object[] identities;
+		private final int hash;
+
+		private Key(@NotNull Class<?> type, Object value, @NotNull Object... identities) {
+			this.type = type;
+			this.value = value;
+			this.identities = identities;
+
+			var hash = type.hashCode() * 31 + Objects.hashCode(value);
+			for (var identity : identities) hash = hash * 31 + System.identityHashCode(identity);
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key k) || k.hash != hash || k.type != type || k.identities.length != identities.length || !Objects.equals(k.value, value)) return false;
+
+			for (int i = 0; i < identities.length; i++) {
+				if (k.identities[i] != identities[i]) return false;
+			}
+
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
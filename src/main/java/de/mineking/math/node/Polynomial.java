@@ -0,0 +1,477 @@
+package de.mineking.math.node;
+
+import de.mineking.math.MathEnvironment;
+import de.mineking.math.Rational;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.Evaluator;
+import de.mineking.math.compile.VariableSlots;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+//Dense univariate polynomial, coefficients[i] belongs to variable^i. Exact polynomials additionally keep their rational coefficients
+public class Polynomial implements Node {
+	private final static int KARATSUBA_THRESHOLD = 32;
+	private final static int BLOCK_SIZE = 512;
+	private final static int MAX_DEGREE = 1 << 16;
+
+	private final String variable;
+	private final double[] coefficients;
+	private final Rational[] exact;
+
+	//Set on bound copies only
+	private final List<String> layout;
+	private final int slot;
+
+	private Node canonical;
+	private int hash;
+	private Object[] key;
+
+	private Polynomial(@NotNull String variable, @NotNull double[] coefficients, @Nullable Rational[] exact) {
+		this(variable, coefficients, exact, null, -1);
+	}
+
+	private Polynomial(@NotNull String variable, @NotNull double[] coefficients, @Nullable Rational[] exact, @Nullable List<String> layout, int slot) {
+		this.variable = variable;
+		this.coefficients = coefficients;
+		this.exact = exact;
+		this.layout = layout;
+		this.slot = slot;
+	}
+
+	@NotNull
+	public static Polynomial create(@NotNull String variable, @NotNull double... coefficients) {
+		var length = coefficients.length;
+		while (length > 0 && coefficients[length - 1] == 0) length--;
+
+		return new Polynomial(variable, Arrays.copyOf(coefficients, length), null);
+	}
+
+	@NotNull
+	public static Polynomial create(@NotNull double... coefficients) {
+		return create(Node.defaultVariable, coefficients);
+	}
+
+	@NotNull
+	public static Polynomial exact(@NotNull String variable, @NotNull Rational... coefficients) {
+		var length = coefficients.length;
+		while (length > 0 && coefficients[length - 1].isZero()) length--;
+
+		var exact = Arrays.copyOf(coefficients, length);
+		return new Polynomial(variable, Arrays.stream(exact).mapToDouble(Rational::doubleValue).toArray(), exact);
+	}
+
+	//Detects whether a node is a polynomial in the given variable. The degree check is cheap and rejects most other expressions before any conversion happens
+	@Nullable
+	public static Polynomial of(@NotNull Node node, @NotNull String variable) {
+		if (node instanceof Polynomial p) return p.variable.equals(variable) ? p : null;
+
+		var degree = node.getDegree(variable);
+		if (degree < 0 || degree > MAX_DEGREE || degree != (int) degree) return null;
+
+		var sparse = SparsePolynomial.of(node);
+		if (sparse == null) return null;
+
+		var variables = sparse.getVariables();
+		if (variables.size() > 1 || variables.size() == 1 && !variables.get(0).equals(variable)) return null;
+
+		var max = 0;
+		for (int i = 0; i < sparse.size(); i++) max = Math.max(max, sparse.getExponent(i, 0));
+
+		//Sparse polynomials only absorb constants with an exact value, so the result is always exact
+		var coefficients = new Rational[max + 1];
+		Arrays.fill(coefficients, Rational.ZERO);
+		for (int i = 0; i < sparse.size(); i++) coefficients[sparse.getExponent(i, 0)] = coefficients[sparse.getExponent(i, 0)].add(sparse.getRationalCoefficient(i));
+
+		return exact(variable, coefficients);
+	}
+
+	@NotNull
+	public String getVariable() {
+		return variable;
+	}
+
+	@NotNull
+	public double[] getCoefficients() {
+		return coefficients.clone();
+	}
+
+	@Nullable
+	public Rational[] getExactCoefficients() {
+		return exact == null ? null : exact.clone();
+	}
+
+	public boolean isExact() {
+		return exact != null;
+	}
+
+	public int degree() {
+		return coefficients.length - 1;
+	}
+
+	public double evaluate(double x) {
+		var result = 0.0;
+		for (int i = coefficients.length - 1; i >= 0; i--) result = result * x + coefficients[i];
+
+		return result;
+	}
+
+	public void evaluate(@NotNull double[] x, @NotNull double[] result) {
+		if (result.length < x.length) throw new IllegalArgumentException("Result array too small");
+
+		//Horner is applied column-wise on blocks, so the inner loop is a plain multiply-add over arrays that stays in cache
+		for (int start = 0; start < x.length; start += BLOCK_SIZE) {
+			var end = Math.min(start + BLOCK_SIZE, x.length);
+			Arrays.fill(result, start, end, coefficients.length == 0 ? 0 : coefficients[coefficients.length - 1]);
+
+			for (int i = coefficients.length - 2; i >= 0; i--) {
+				var c = coefficients[i];
+				for (int j = start; j < end; j++) result[j] = result[j] * x[j] + c;
+			}
+		}
+	}
+
+	@NotNull
+	public Rational evaluate(@NotNull Rational x) {
+		if (exact == null) throw new UnsupportedOperationException("Polynomial is not exact");
+
+		var result = Rational.ZERO;
+		for (int i = exact.length - 1; i >= 0; i--) result = result.multiply(x).add(exact[i]);
+
+		return result;
+	}
+
+	private void checkVariable(@NotNull Polynomial other) {
+		if (!variable.equals(other.variable) && other.degree() > 0 && degree() > 0) throw new IllegalArgumentException("Polynomials in different variables: " + variable + ", " + other.variable);
+	}
+
+	@NotNull
+	public Polynomial add(@NotNull Polynomial other) {
+		checkVariable(other);
+		var variable = degree() > 0 ? this.variable : other.variable;
+
+		if (exact != null && other.exact != null) {
+			var result = new Rational[Math.max(exact.length, other.exact.length)];
+			for (int i = 0; i < result.length; i++) result[i] = (i < exact.length ? exact[i] : Rational.ZERO).add(i < other.exact.length ? other.exact[i] : Rational.ZERO);
+
+			return exact(variable, result);
+		}
+
+		var result = Arrays.copyOf(coefficients, Math.max(coefficients.length, other.coefficients.length));
+		for (int i = 0; i < other.coefficients.length; i++) result[i] += other.coefficients[i];
+
+		return create(variable, result);
+	}
+
+	@NotNull
+	public Polynomial multiply(@NotNull Polynomial other) {
+		checkVariable(other);
+		var variable = degree() > 0 ? this.variable : other.variable;
+
+		if (coefficients.length == 0 || other.coefficients.length == 0) return create(variable);
+
+		if (exact != null && other.exact != null) {
+			var result = new Rational[exact.length + other.exact.length - 1];
+			Arrays.fill(result, Rational.ZERO);
+
+			for (int i = 0; i < exact.length; i++) {
+				for (int j = 0; j < other.exact.length; j++) result[i + j] = result[i + j].add(exact[i].multiply(other.exact[j]));
+			}
+
+			return exact(variable, result);
+		}
+
+		return create(variable, multiply(coefficients, other.coefficients));
+	}
+
+	@NotNull
+	private static double[] multiply(@NotNull double[] a, @NotNull double[] b) {
+		if (a.length < b.length) return multiply(b, a); //a is always the longer operand
+
+		if (b.length < KARATSUBA_THRESHOLD) {
+			var result = new double[a.length + b.length - 1];
+			for (int i = 0; i < a.length; i++) {
+				for (int j = 0; j < b.length; j++) result[i + j] += a[i] * b[j];
+			}
+
+			return result;
+		}
+
+		var half = (a.length + 1) / 2;
+
+		if (b.length <= half) {
+			//Unbalanced operands: splitting both at half of the longer one would only pad the shorter one with zeros. Multiply b with chunks of a of its own length instead
+			var result = new double[a.length + b.length - 1];
+
+			for (int from = 0; from < a.length; from += b.length) {
+				var product = multiply(Arrays.copyOfRange(a, from, Math.min(a.length, from + b.length)), b);
+				for (int i = 0; i < product.length; i++) result[from + i] += product[i];
+			}
+
+			return result;
+		}
+
+		//Karatsuba: (a1 t + a0)(b1 t + b0) = z2 t^2 + ((a0 + a1)(b0 + b1) - z0 - z2) t + z0 with three instead of four half-size products
+		var a0 = Arrays.copyOfRange(a, 0, half);
+		var a1 = Arrays.copyOfRange(a, half, a.length);
+		var b0 = Arrays.copyOfRange(b, 0, half);
+		var b1 = Arrays.copyOfRange(b, half, b.length);
+
+		var z0 = multiply(a0, b0);
+		var z2 = multiply(a1, b1);
+		var z1 = multiply(sum(a0, a1), sum(b0, b1));
+
+		var result = new double[a.length + b.length - 1];
+
+		for (int i = 0; i < z0.length; i++) {
+			result[i] += z0[i];
+			result[i + half] += z1[i] - z0[i];
+		}
+
+		for (int i = 0; i < z2.length; i++) {
+			result[i + half] -= z2[i];
+			result[i + 2 * half] += z2[i];
+		}
+
+		return result;
+	}
+
+	@NotNull
+	private static double[] sum(@NotNull double[] a, @NotNull double[] b) {
+		var result = a.clone();
+		for (int i = 0; i < b.length; i++) result[i] += b[i];
+
+		return result;
+	}
+
+	@NotNull
+	public Polynomial derivative() {
+		if (coefficients.length <= 1) return create(variable);
+
+		if (exact != null) {
+			var result = new Rational[exact.length - 1];
+			for (int i = 0; i < result.length; i++) result[i] = exact[i + 1].multiply(Rational.of(i + 1));
+
+			return exact(variable, result);
+		}
+
+		var result = new double[coefficients.length - 1];
+		for (int i = 0; i < result.length; i++) result[i] = coefficients[i + 1] * (i + 1);
+
+		return create(variable, result);
+	}
+
+	//Antiderivative with a constant term of 0
+	@NotNull
+	public Polynomial integral() {
+		if (exact != null) {
+			var result = new Rational[exact.length + 1];
+			result[0] = Rational.ZERO;
+			for (int i = 0; i < exact.length; i++) result[i + 1] = exact[i].divide(Rational.of(i + 1));
+
+			return exact(variable, result);
+		}
+
+		var result = new double[coefficients.length + 1];
+		for (int i = 0; i < coefficients.length; i++) result[i + 1] = coefficients[i] / (i + 1);
+
+		return create(variable, result);
+	}
+
+	@NotNull
+	private Node coefficient(int index) {
+		if (exact == null || exact[index].isInteger()) return Constant.create(coefficients[index]);
+		return Fraction.create(Constant.create(exact[index].getNumerator().doubleValue()), Constant.create(exact[index].getDenominator().doubleValue()));
+	}
+
+	@NotNull
+	public Node toNode() {
+		var terms = new ArrayList<Node>();
+		var x = Variable.create(variable);
+
+		for (int i = coefficients.length - 1; i >= 0; i--) {
+			if (coefficients[i] == 0) continue;
+
+			var power = i == 0 ? Constant.ONE : i == 1 ? x : Exponent.create(x, Constant.create(i));
+			terms.add(Product.create(coefficient(i), power));
+		}
+
+		return Sum.create(terms);
+	}
+
+	@NotNull
+	@Override
+	public Node apply(@NotNull MathEnvironment environment) {
+		if (coefficients.length <= 1) return coefficients.length == 0 ? Constant.ZERO : coefficient(0);
+
+		var value = environment.getVariables().get(variable);
+		if (value == null) return this;
+
+		var param = value.apply(environment);
+		if (param.hasValue(environment)) {
+			var result = evaluate(param.value());
+			if (result == (int) result || environment.isEvaluate()) return Constant.create(result);
+		}
+
+		return toNode().apply(environment);
+	}
+
+	@NotNull
+	@Override
+	public Node negate() {
+		if (exact != null) return exact(variable, Arrays.stream(exact).map(Rational::negate).toArray(Rational[]::new));
+		return create(variable, Arrays.stream(coefficients).map(c -> -c).toArray());
+	}
+
+	@NotNull
+	@Override
+	public Node getDerivative(@NotNull String variable) {
+		if (!variable.equals(this.variable)) return Constant.ZERO;
+		return derivative();
+	}
+
+	@NotNull
+	@Override
+	public Node getIntegral(@NotNull String variable) {
+		if (!variable.equals(this.variable)) return Product.create(this, Variable.create(variable));
+		return integral();
+	}
+
+	@NotNull
+	@Override
+	public DoubleUnaryOperator compile(@NotNull String variable) {
+		if (!variable.equals(this.variable) && degree() > 0) throw new UnsupportedOperationException("Unknown variable: " + this.variable);
+		return this::evaluate;
+	}
+
+	@NotNull
+	@Override
+	public Evaluator compile(@NotNull List<String> variables) {
+		var index = variables.indexOf(variable);
+		if (index < 0 && degree() > 0) throw new UnsupportedOperationException("Unknown variable: " + variable);
+
+		return v -> evaluate(index < 0 ? 0 : v[index]);
+	}
+
+	@NotNull
+	@Override
+	public Node bind(@NotNull VariableSlots layout) {
+		return new Polynomial(variable, coefficients, exact, layout.getNames(), layout.getSlot(variable));
+	}
+
+	@Override
+	public double evalDouble(@NotNull VariableSlots slots) {
+		if (degree() <= 0) return evaluate(0);
+
+		var index = slots.getSlot(layout, slot, variable);
+		return index < 0 ? Double.NaN : evaluate(slots.get(index));
+	}
+
+	@Override
+	public void evalDual(@NotNull VariableSlots slots, int slot, @NotNull Dual result) {
+		if (degree() <= 0) {
+			result.set(evaluate(0), 0);
+			return;
+		}
+
+		var index = slots.getSlot(layout, this.slot, variable);
+		if (index < 0) {
+			result.set(Double.NaN, Double.NaN);
+			return;
+		}
+
+		var x = slots.get(index);
+		var value = 0.0;
+		var slope = 0.0;
+
+		for (int i = coefficients.length - 1; i >= 0; i--) {
+			slope = slope * x + value;
+			value = value * x + coefficients[i];
+		}
+
+		result.set(value, index == slot ? slope : 0);
+	}
+
+	@Override
+	public int getSize() {
+		return 1 + (int) Arrays.stream(coefficients).filter(c -> c != 0).count();
+	}
+
+	@Override
+	public double getDegree(@NotNull String variable) {
+		return variable.equals(this.variable) ? Math.max(degree(), 0) : 0;
+	}
+
+	@Override
+	public boolean isConstant() {
+		return degree() <= 0;
+	}
+
+	@Override
+	public boolean isNegative() {
+		return coefficients.length > 0 && coefficients[coefficients.length - 1] < 0;
+	}
+
+	@NotNull
+	@Override
+	public Node canonical() {
+		//Benign race: concurrent callers compute equal canonical forms
+		var temp = canonical;
+		if (temp == null) {
+			temp = toNode().canonical();
+			if (Canonical.isComplete()) canonical = temp;
+		}
+
+		return temp;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj instanceof Polynomial p) {
+			if (!p.variable.equals(variable) && degree() > 0) return false;
+
+			return Arrays.equals(p.key(), key());
+		}
+
+		return obj instanceof Node n && canonical().equals(n);
+	}
+
+	//Every coefficient is compared as rational: the exact one if known, otherwise the one Constant snaps the double to. Doubles without such a rational are compared as they are
+	@NotNull
+	private Object[] key() {
+		//Benign race: concurrent callers compute equal keys
+		var temp = key;
+		if (temp == null) {
+			temp = new Object[coefficients.length];
+			for (int i = 0; i < temp.length; i++) {
+				var rational = exact != null ? exact[i] : Constant.create(coefficients[i]).getRational();
+				temp[i] = rational != null ? rational : (Object) coefficients[i];
+			}
+
+			key = temp;
+		}
+
+		return temp;
+	}
+
+	@Override
+	public int hashCode() {
+		if (hash == 0) hash = canonical().hashCode();
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return toNode().toString();
+	}
+
+	@Override
+	public int getPriority() {
+		return toNode().getPriority();
+	}
+}
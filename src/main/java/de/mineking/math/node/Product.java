@@ -1,24 +1,29 @@
 package de.mineking.math.node;
 
 import de.mineking.math.MathEnvironment;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.Evaluator;
+import de.mineking.math.compile.VariableSlots;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleUnaryOperator;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class Product implements Node {
 	private final List<Node> nodes;
 
+	private Node canonical;
+	private int hash;
+
 	Product(@NotNull List<Node> nodes) {
 		this.nodes = nodes;
 	}
 
 	@NotNull
 	public List<Node> getNodes() {
-		return nodes;
+		return Collections.unmodifiableList(nodes);
 	}
 
 	@NotNull
@@ -36,7 +41,7 @@ public class Product implements Node {
 
 		if (temp.stream().anyMatch(n -> n == Constant.ZERO)) return Constant.ZERO;
 
-		return new Product(temp);
+		return NodeInterner.intern(new Product(temp));
 	}
 
 	@NotNull
@@ -46,34 +51,48 @@ public class Product implements Node {
 
 	@NotNull
 	private static List<Node> process(@NotNull Collection<Node> nodes, @NotNull MathEnvironment environment) {
-		var constant = new AtomicReference<>(1.0);
-		var temp = nodes.stream()
-				.flatMap(n -> n instanceof Product p ? p.nodes.stream() : Stream.of(n))
-				.filter(n -> {
-					if (n.hasValue(environment)) {
-						constant.updateAndGet(d -> d * n.value());
-						return false;
-					}
-
-					return true;
-				})
-				.map(n -> {
-					if (n.isNegative()) {
-						constant.updateAndGet(d -> d * -1);
-						return n.negate();
-					} else return n;
-				})
-				.filter(n -> n != Constant.ONE)
-				.collect(Collectors.toList());
+		var constant = new ConstantFolder(true, environment.isEvaluate());
+		var temp = new ArrayList<Node>(nodes.size());
 
-		if (constant.get() != 1) temp.add(Constant.create(constant.get()));
+		for (var node : nodes) {
+			if (node instanceof Product p) {
+				for (var n : p.nodes) process(n, constant, temp, environment);
+			} else process(node, constant, temp, environment);
+		}
+
+		var folded = constant.result();
+		if (folded != Constant.ONE) temp.add(folded);
 
 		return temp;
 	}
 
+	private static void process(@NotNull Node node, @NotNull ConstantFolder constant, @NotNull List<Node> result, @NotNull MathEnvironment environment) {
+		if (constant.fold(node, node.hasValue(environment))) return;
+
+		if (node.isNegative()) {
+			constant.negate();
+			node = node.negate();
+		}
+
+		if (node != Constant.ONE) result.add(node);
+	}
+
+	@NotNull
+	static Product createCanonical(@NotNull List<Node> nodes) {
+		var result = new Product(nodes);
+		result.canonical = result;
+
+		return result;
+	}
+
 	@NotNull
 	@Override
 	public Node apply(@NotNull MathEnvironment environment) {
+		return environment.cached(this, () -> applyUncached(environment));
+	}
+
+	@NotNull
+	private Node applyUncached(@NotNull MathEnvironment environment) {
 		var temp = create(this.nodes.stream().map(n -> n.apply(environment)).toList());
 
 		if (temp instanceof Product product) {
@@ -111,6 +130,75 @@ public class Product implements Node {
 		);
 	}
 
+	@NotNull
+	@Override
+	public DoubleUnaryOperator compile(@NotNull String variable) {
+		var nodes = this.nodes.stream().map(n -> n.compile(variable)).toArray(DoubleUnaryOperator[]::new);
+
+		if (nodes.length == 2) {
+			var a = nodes[0];
+			var b = nodes[1];
+			return x -> a.applyAsDouble(x) * b.applyAsDouble(x);
+		}
+
+		return x -> {
+			var result = 1.0;
+			for (var n : nodes) result *= n.applyAsDouble(x);
+			return result;
+		};
+	}
+
+	@NotNull
+	@Override
+	public Evaluator compile(@NotNull List<String> variables) {
+		var nodes = this.nodes.stream().map(n -> n.compile(variables)).toArray(Evaluator[]::new);
+
+		if (nodes.length == 2) {
+			var a = nodes[0];
+			var b = nodes[1];
+			return v -> a.evaluate(v) * b.evaluate(v);
+		}
+
+		return v -> {
+			var result = 1.0;
+			for (var n : nodes) result *= n.evaluate(v);
+			return result;
+		};
+	}
+
+	@NotNull
+	@Override
+	public Node bind(@NotNull VariableSlots layout) {
+		return new Product(nodes.stream().map(n -> n.bind(layout)).toList());
+	}
+
+	@Override
+	public double evalDouble(@NotNull VariableSlots slots) {
+		var result = 1.0;
+		for (int i = 0; i < nodes.size(); i++) result *= nodes.get(i).evalDouble(slots);
+
+		return result;
+	}
+
+	@Override
+	public void evalDual(@NotNull VariableSlots slots, int slot, @NotNull Dual result) {
+		var value = 1.0;
+		var slope = 0.0;
+
+		for (int i = 0; i < nodes.size(); i++) {
+			nodes.get(i).evalDual(slots, slot, result);
+			slope = slope * result.getValue() + value * result.getSlope();
+			value *= result.getValue();
+		}
+
+		result.set(value, slope);
+	}
+
+	@Override
+	public int getSize() {
+		return 1 + nodes.stream().mapToInt(Node::getSize).sum();
+	}
+
 	@Override
 	public double getDegree(@NotNull String variable) {
 		if (nodes.stream().anyMatch(n -> n.getDegree(variable) == Integer.MAX_VALUE)) return Integer.MAX_VALUE - 1;
@@ -135,6 +223,14 @@ public class Product implements Node {
 				.toList();
 	}
 
+	@NotNull
+	@Override
+	public List<Node> getFactorCandidates(@NotNull MathEnvironment environment) {
+		return nodes.stream()
+				.flatMap(n -> n.getFactorCandidates(environment).stream())
+				.toList();
+	}
+
 	@Nullable
 	@Override
 	public Node removeFactor(@NotNull Node node, @NotNull MathEnvironment environment) {
@@ -151,22 +247,41 @@ public class Product implements Node {
 		return null;
 	}
 
+	boolean isCanonical() {
+		return canonical == this;
+	}
+
+	@NotNull
+	@Override
+	public Node canonical() {
+		//Benign race: concurrent callers compute equal canonical forms
+		var temp = canonical;
+		if (temp == null) {
+			temp = Canonical.normalize(simplify());
+			if (Canonical.isComplete()) canonical = temp;
+		}
+
+		return temp;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
+		if (this == obj) return true;
 		if (!(obj instanceof Node n)) return false;
-		var a = simplify();
-		var b = n.simplify();
 
-		if (a instanceof Product pa) {
-			if (b instanceof Product pb) return new HashSet<>(pa.nodes).equals(new HashSet<>(pb.nodes));
-			else return false;
-		}
-		return a.equals(b);
+		var a = canonical();
+		if (a != this) return a.equals(obj);
+
+		return n.canonical() instanceof Product p && nodes.equals(p.nodes);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash("product", nodes);
+		var a = canonical();
+		if (a != this) return a.hashCode();
+
+		if (hash == 0) hash = Objects.hash("product", nodes);
+		return hash;
 	}
 
 	@Override
@@ -0,0 +1,327 @@
+package de.mineking.math.node;
+
+import de.mineking.math.MathFunction;
+import de.mineking.math.Rational;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+//Multivariate polynomial in normal form with exact coefficients. Terms are stored as primitive exponent vectors and indexed by monomial, so like terms combine in constant time
+public class SparsePolynomial {
+	private final static int MAX_POWER = 64;
+	private final static int MAX_TERMS = 1024; //Expansion stops here, larger products are not treated as polynomials
+
+	private final List<String> variables = new ArrayList<>();
+	private final Map<String, Integer> variableIndex = new HashMap<>();
+
+	private final Map<Monomial, Integer> index = new HashMap<>();
+	private int[][] exponents = new int[8][];
+	private Rational[] coefficients = new Rational[8];
+	private int size;
+
+	@NotNull
+	public List<String> getVariables() {
+		return Collections.unmodifiableList(variables);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public double getCoefficient(int term) {
+		return coefficients[term].doubleValue();
+	}
+
+	@NotNull
+	public Rational getRationalCoefficient(int term) {
+		return coefficients[term];
+	}
+
+	public int getExponent(int term, int variable) {
+		var temp = exponents[term];
+		return variable < temp.length ? temp[variable] : 0;
+	}
+
+	public boolean isZero() {
+		for (int i = 0; i < size; i++) if (!coefficients[i].isZero()) return false;
+		return true;
+	}
+
+	private int variable(@NotNull String name) {
+		return variableIndex.computeIfAbsent(name, n -> {
+			variables.add(n);
+			return variables.size() - 1;
+		});
+	}
+
+	public void add(@NotNull Rational coefficient, @NotNull int[] exponents) {
+		var monomial = new Monomial(exponents);
+		var term = index.get(monomial);
+
+		if (term != null) {
+			coefficients[term] = coefficients[term].add(coefficient);
+			return;
+		}
+
+		if (size == coefficients.length) {
+			this.exponents = Arrays.copyOf(this.exponents, size * 2);
+			this.coefficients = Arrays.copyOf(coefficients, size * 2);
+		}
+
+		this.exponents[size] = monomial.exponents;
+		this.coefficients[size] = coefficient;
+		index.put(monomial, size++);
+	}
+
+	public void add(@NotNull SparsePolynomial other) {
+		var map = other.variables.stream().mapToInt(this::variable).toArray();
+		for (int i = 0; i < other.size; i++) add(other.coefficients[i], remap(other.exponents[i], map));
+	}
+
+	//Returns false without modifying this polynomial if the node is not a single monomial with an exact coefficient
+	public boolean add(@NotNull Node node) {
+		var coefficient = Rational.ONE;
+		var powers = new ArrayList<Map.Entry<String, Integer>>();
+
+		for (var factor : node instanceof Product p ? p.getNodes() : List.of(node)) {
+			var rational = rational(factor);
+
+			if (rational != null) coefficient = coefficient.multiply(rational);
+			else if (factor instanceof Variable v) powers.add(Map.entry(v.getName(), 1));
+			else if (factor instanceof Exponent e && e.getBase() instanceof Variable v && power(e.getExponent()) > 0) powers.add(Map.entry(v.getName(), power(e.getExponent())));
+			else return false;
+		}
+
+		var exponents = new int[0];
+		for (var power : powers) {
+			var variable = variable(power.getKey());
+			if (variable >= exponents.length) exponents = Arrays.copyOf(exponents, variable + 1);
+			exponents[variable] += power.getValue();
+		}
+
+		add(coefficient, exponents);
+		return true;
+	}
+
+	@NotNull
+	public SparsePolynomial multiply(@NotNull SparsePolynomial other) {
+		var result = new SparsePolynomial();
+		var a = variables.stream().mapToInt(result::variable).toArray();
+		var b = other.variables.stream().mapToInt(result::variable).toArray();
+
+		for (int i = 0; i < size; i++) {
+			var left = remap(exponents[i], a);
+
+			for (int j = 0; j < other.size; j++) {
+				var right = remap(other.exponents[j], b);
+				var temp = Arrays.copyOf(left, Math.max(left.length, right.length));
+				for (int k = 0; k < right.length; k++) temp[k] += right[k];
+
+				result.add(coefficients[i].multiply(other.coefficients[j]), temp);
+			}
+		}
+
+		return result;
+	}
+
+	@NotNull
+	private static int[] remap(@NotNull int[] exponents, @NotNull int[] map) {
+		var length = 0;
+		for (int i = 0; i < exponents.length; i++) if (exponents[i] != 0) length = Math.max(length, map[i] + 1);
+
+		var result = new int[length];
+		for (int i = 0; i < exponents.length; i++) if (exponents[i] != 0) result[map[i]] = exponents[i];
+
+		return result;
+	}
+
+	//Simplified trees show non-integer rationals as fractions of two constants
+	@Nullable
+	private static Rational rational(@NotNull Node node) {
+		if (node instanceof Constant c) return c.shouldCombine() ? c.getRational() : null;
+
+		if (node instanceof Fraction f) {
+			var top = rational(f.getTop());
+			var bottom = rational(f.getBottom());
+			if (top != null && bottom != null && !bottom.isZero()) return top.divide(bottom);
+		}
+
+		return null;
+	}
+
+	private static int power(@NotNull Node node) {
+		if (node instanceof Constant c && c.value() == (int) c.value() && c.value() > 0 && c.value() <= MAX_POWER) return (int) c.value();
+		return -1;
+	}
+
+	@Nullable
+	public static SparsePolynomial of(@NotNull Node node) {
+		if (node instanceof MathFunction f) return of(f.getNode());
+
+		if (node instanceof Sum s) return of(s.getNodes());
+
+		if (node instanceof Product p) {
+			var result = constant(Rational.ONE);
+
+			for (var n : p.getNodes()) {
+				var temp = of(n);
+				if (temp == null) return null;
+
+				result = result.multiply(temp);
+				if (result.size > MAX_TERMS) return null;
+			}
+
+			return result;
+		}
+
+		if (node instanceof Polynomial p) {
+			var result = new SparsePolynomial();
+			var variable = p.degree() > 0 ? result.variable(p.getVariable()) : 0;
+			var coefficients = p.getCoefficients();
+			var exact = p.getExactCoefficients();
+
+			for (int i = 0; i < coefficients.length; i++) {
+				if (coefficients[i] == 0) continue;
+
+				var coefficient = exact != null ? exact[i] : Constant.create(coefficients[i]).getRational();
+				if (coefficient == null) return null;
+
+				var exponents = new int[variable + 1];
+				exponents[variable] = i;
+				result.add(coefficient, exponents);
+			}
+
+			return result;
+		}
+
+		//Constant denominators are part of the coefficients, simplified trees show x / 3 instead of 1/3 x
+		if (node instanceof Fraction f) {
+			var bottom = rational(f.getBottom());
+			var top = bottom != null && !bottom.isZero() ? of(f.getTop()) : null;
+			if (top == null) return null;
+
+			return top.multiply(constant(bottom.reciprocal()));
+		}
+
+		if (node instanceof Exponent e && !(e.getBase() instanceof Variable)) {
+			var power = power(e.getExponent());
+			var base = power > 0 ? of(e.getBase()) : null;
+			if (base == null) return null;
+
+			var result = constant(Rational.ONE);
+			for (int i = 0; i < power; i++) {
+				result = result.multiply(base);
+				if (result.size > MAX_TERMS) return null;
+			}
+
+			return result;
+		}
+
+		var result = new SparsePolynomial();
+		return result.add(node) ? result : null;
+	}
+
+	//Sum of the given terms, or null if any of them is not polynomial
+	@Nullable
+	public static SparsePolynomial of(@NotNull List<Node> terms) {
+		var result = new SparsePolynomial();
+
+		for (var n : terms) {
+			var temp = of(n);
+			if (temp == null) return null;
+
+			result.add(temp);
+			if (result.size > MAX_TERMS) return null;
+		}
+
+		return result;
+	}
+
+	@NotNull
+	private static SparsePolynomial constant(@NotNull Rational value) {
+		var result = new SparsePolynomial();
+		result.add(value, new int[0]);
+
+		return result;
+	}
+
+	@NotNull
+	public Node toNode(int term) {
+		var factors = new ArrayList<Node>();
+		if (!coefficients[term].equals(Rational.ONE)) factors.add(Constant.create(coefficients[term]));
+
+		var exponents = this.exponents[term];
+		for (int i = 0; i < exponents.length; i++) {
+			if (exponents[i] == 0) continue;
+
+			var variable = Variable.create(variables.get(i));
+			factors.add(exponents[i] == 1 ? variable : Exponent.create(variable, Constant.create(exponents[i])));
+		}
+
+		return Product.create(factors);
+	}
+
+	@NotNull
+	public List<Node> toNodes() {
+		var result = new ArrayList<Node>(size);
+		for (int i = 0; i < size; i++) if (!coefficients[i].isZero()) result.add(toNode(i));
+
+		return result;
+	}
+
+	@NotNull
+	public Node toNode() {
+		return Sum.create(toNodes());
+	}
+
+	//Merges like monomials in a single pass. Terms that are not monomials are kept in place; the list is returned unchanged if nothing merged
+	@NotNull
+	static List<Node> combineLikeTerms(@NotNull List<Node> nodes) {
+		var polynomial = new SparsePolynomial();
+		var terms = new int[nodes.size()];
+
+		for (int i = 0; i < nodes.size(); i++) {
+			var before = polynomial.size;
+			terms[i] = polynomial.add(nodes.get(i)) ? (polynomial.size > before ? before : -2) : -1;
+		}
+
+		if (Arrays.stream(terms).noneMatch(t -> t == -2)) return nodes;
+
+		var result = new ArrayList<Node>(nodes.size());
+		for (int i = 0; i < nodes.size(); i++) {
+			if (terms[i] == -1) result.add(nodes.get(i));
+			else if (terms[i] >= 0 && !polynomial.coefficients[terms[i]].isZero()) result.add(polynomial.toNode(terms[i]));
+		}
+
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return toNode().toString();
+	}
+
+	private static class Monomial {
+		private final int[] exponents;
+		private final int hash;
+
+		private Monomial(@NotNull int[] exponents) {
+			var length = exponents.length;
+			while (length > 0 && exponents[length - 1] == 0) length--;
+
+			this.exponents = length == exponents.length ? exponents : Arrays.copyOf(exponents, length);
+			this.hash = Arrays.hashCode(this.exponents);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Monomial m && Arrays.equals(exponents, m.exponents);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
@@ -1,19 +1,24 @@
 package de.mineking.math.node;
 
 import de.mineking.math.MathEnvironment;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.Evaluator;
+import de.mineking.math.compile.VariableSlots;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleUnaryOperator;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class Sum implements Node {
 	private final List<Node> nodes;
 
+	private Node canonical;
+	private int hash;
+
 	Sum(@NotNull List<Node> nodes) {
 		this.nodes = nodes;
 	}
@@ -30,7 +35,7 @@ public class Sum implements Node {
 		if (temp.isEmpty()) return Constant.ZERO;
 		if (temp.size() == 1) return temp.stream().findFirst().get();
 
-		return new Sum(temp);
+		return NodeInterner.intern(new Sum(temp));
 	}
 
 	@NotNull
@@ -40,28 +45,42 @@ public class Sum implements Node {
 
 	@NotNull
 	private static List<Node> process(@NotNull Collection<Node> nodes, @NotNull MathEnvironment environment) {
-		var constant = new AtomicReference<>(0.0);
-		var temp = nodes.stream()
-				.flatMap(n -> n instanceof Sum s ? s.nodes.stream() : Stream.of(n))
-				.filter(n -> n != Constant.ZERO)
-				.filter(n -> {
-					if (n.hasValue(environment)) {
-						constant.updateAndGet(d -> d + n.value());
-						return false;
-					}
+		var constant = new ConstantFolder(false, environment.isEvaluate());
+		var temp = new ArrayList<Node>(nodes.size());
 
-					return true;
-				})
-				.collect(Collectors.toList());
+		for (var node : nodes) {
+			if (node instanceof Sum s) {
+				for (var n : s.nodes) process(n, constant, temp, environment);
+			} else process(node, constant, temp, environment);
+		}
 
-		if (constant.get() != 0) temp.add(Constant.create(constant.get()));
+		var folded = constant.result();
+		if (folded != Constant.ZERO) temp.add(folded);
 
 		return temp;
 	}
 
+	private static void process(@NotNull Node node, @NotNull ConstantFolder constant, @NotNull List<Node> result, @NotNull MathEnvironment environment) {
+		if (node == Constant.ZERO) return;
+		if (!constant.fold(node, node.hasValue(environment))) result.add(node);
+	}
+
+	@NotNull
+	static Sum createCanonical(@NotNull List<Node> nodes) {
+		var result = new Sum(nodes);
+		result.canonical = result;
+
+		return result;
+	}
+
 	@NotNull
 	@Override
 	public Node apply(@NotNull MathEnvironment environment) {
+		return environment.cached(this, () -> applyUncached(environment));
+	}
+
+	@NotNull
+	private Node applyUncached(@NotNull MathEnvironment environment) {
 		var temp = create(this.nodes.stream().map(n -> n.apply(environment)).toList());
 
 		if (temp instanceof Sum sum) {
@@ -74,18 +93,27 @@ public class Sum implements Node {
 
 			if (neg.get() > nodes.size() / 2) return create(nodes.stream().map(Node::negate).toList()).negate().apply(environment);
 
-			//TODO (...)^n
+			//Polynomial sums are expanded into normal form, other sums only merge their like monomials. Either way the factoring loop below never has to find like terms pairwise
+			var polynomial = SparsePolynomial.of(nodes);
+			nodes = new ArrayList<>(polynomial != null ? polynomial.toNodes() : SparsePolynomial.combineLikeTerms(nodes));
 
 			combine:
 			while (true) {
+				environment.getMetrics().combineIteration();
+
 				for (var n : new ArrayList<>(nodes)) {
-					var factors = n.getFactors(environment);
+					var factors = n.getFactorCandidates(environment);
 
 					for (var factor : factors) {
+						if (environment.isExhausted()) break combine; //Every factor is either fully moved or not at all, so the sum is still valid here
+						if (factor.equals(Constant.ONE)) continue; //Factoring out 1 would wrap the sum into itself and never terminate
+
 						var s = new ArrayList<Node>();
 
 						for (int j = nodes.size() - 1; j >= 0; j--) { //Go backward to ensure valid indices for remove call
 							var t = nodes.get(j).removeFactor(factor, environment);
+							environment.getMetrics().removeFactor(t != null);
+
 							if (t != null) {
 								nodes.remove(j);
 								s.add(t);
@@ -118,6 +146,75 @@ public class Sum implements Node {
 		return create(nodes.stream().map(n -> n.getIntegral(variable)).toList());
 	}
 
+	@NotNull
+	@Override
+	public DoubleUnaryOperator compile(@NotNull String variable) {
+		var nodes = this.nodes.stream().map(n -> n.compile(variable)).toArray(DoubleUnaryOperator[]::new);
+
+		if (nodes.length == 2) {
+			var a = nodes[0];
+			var b = nodes[1];
+			return x -> a.applyAsDouble(x) + b.applyAsDouble(x);
+		}
+
+		return x -> {
+			var result = 0.0;
+			for (var n : nodes) result += n.applyAsDouble(x);
+			return result;
+		};
+	}
+
+	@NotNull
+	@Override
+	public Evaluator compile(@NotNull List<String> variables) {
+		var nodes = this.nodes.stream().map(n -> n.compile(variables)).toArray(Evaluator[]::new);
+
+		if (nodes.length == 2) {
+			var a = nodes[0];
+			var b = nodes[1];
+			return v -> a.evaluate(v) + b.evaluate(v);
+		}
+
+		return v -> {
+			var result = 0.0;
+			for (var n : nodes) result += n.evaluate(v);
+			return result;
+		};
+	}
+
+	@NotNull
+	@Override
+	public Node bind(@NotNull VariableSlots layout) {
+		return new Sum(nodes.stream().map(n -> n.bind(layout)).toList());
+	}
+
+	@Override
+	public double evalDouble(@NotNull VariableSlots slots) {
+		var result = 0.0;
+		for (int i = 0; i < nodes.size(); i++) result += nodes.get(i).evalDouble(slots);
+
+		return result;
+	}
+
+	@Override
+	public void evalDual(@NotNull VariableSlots slots, int slot, @NotNull Dual result) {
+		var value = 0.0;
+		var slope = 0.0;
+
+		for (int i = 0; i < nodes.size(); i++) {
+			nodes.get(i).evalDual(slots, slot, result);
+			value += result.getValue();
+			slope += result.getSlope();
+		}
+
+		result.set(value, slope);
+	}
+
+	@Override
+	public int getSize() {
+		return 1 + nodes.stream().mapToInt(Node::getSize).sum();
+	}
+
 	@Override
 	public double getDegree(@NotNull String variable) {
 		return nodes.stream().mapToDouble(node -> node.getDegree(variable)).max().orElse(0);
@@ -129,7 +226,7 @@ public class Sum implements Node {
 		var sum = new ArrayList<>(nodes);
 
 		var factors = nodes.stream()
-				.flatMap(n -> n.getFactors(environment).stream())
+				.flatMap(n -> n.getFactorCandidates(environment).stream())
 				.toList();
 
 		check:
@@ -152,6 +249,20 @@ public class Sum implements Node {
 	@NotNull
 	@Override
 	public List<Node> getFactors(@NotNull MathEnvironment environment) {
+		//The factors have to multiply to the whole sum, otherwise callers like Fraction would drop the remaining sum
+		var result = factor(environment);
+		if (result.common().isEmpty()) return Collections.singletonList(this);
+
+		var factors = new ArrayList<>(result.common());
+		factors.add(create(result.rest()));
+
+		return factors;
+	}
+
+	//Only the shared factors, trying to pull out the remaining sum is rarely worth its cost
+	@NotNull
+	@Override
+	public List<Node> getFactorCandidates(@NotNull MathEnvironment environment) {
 		return factor(environment).common();
 	}
 
@@ -166,22 +277,41 @@ public class Sum implements Node {
 		return Node.super.removeFactor(node, environment);
 	}
 
+	boolean isCanonical() {
+		return canonical == this;
+	}
+
+	@NotNull
+	@Override
+	public Node canonical() {
+		//Benign race: concurrent callers compute equal canonical forms
+		var temp = canonical;
+		if (temp == null) {
+			temp = Canonical.normalize(simplify());
+			if (Canonical.isComplete()) canonical = temp;
+		}
+
+		return temp;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
+		if (this == obj) return true;
 		if (!(obj instanceof Node n)) return false;
-		var a = simplify();
-		var b = n.simplify();
 
-		if (a instanceof Sum sa) {
-			if (b instanceof Sum sb) return new HashSet<>(sa.nodes).equals(new HashSet<>(sb.nodes));
-			else return false;
-		}
-		return a.equals(b);
+		var a = canonical();
+		if (a != this) return a.equals(obj);
+
+		return n.canonical() instanceof Sum s && nodes.equals(s.nodes);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash("sum", nodes);
+		var a = canonical();
+		if (a != this) return a.hashCode();
+
+		if (hash == 0) hash = Objects.hash("sum", nodes);
+		return hash;
 	}
 
 	@Override
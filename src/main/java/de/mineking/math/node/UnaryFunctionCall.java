@@ -1,10 +1,15 @@
 package de.mineking.math.node;
 
 import de.mineking.math.MathEnvironment;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.Evaluator;
+import de.mineking.math.compile.VariableSlots;
 import de.mineking.math.function.UnaryFunction;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
 
 public class UnaryFunctionCall implements Node {
 	private final UnaryFunction function;
@@ -15,14 +20,29 @@ public class UnaryFunctionCall implements Node {
 		this.param = param;
 	}
 
+	@NotNull
+	public UnaryFunction getFunction() {
+		return function;
+	}
+
+	@NotNull
+	public Node getParam() {
+		return param;
+	}
+
 	@NotNull
 	public static UnaryFunctionCall create(@NotNull UnaryFunction function, @NotNull Node param) {
-		return new UnaryFunctionCall(function, param);
+		return NodeInterner.intern(new UnaryFunctionCall(function, param));
 	}
 
 	@NotNull
 	@Override
 	public Node apply(@NotNull MathEnvironment environment) {
+		return environment.cached(this, () -> applyUncached(environment));
+	}
+
+	@NotNull
+	private Node applyUncached(@NotNull MathEnvironment environment) {
 		var param = this.param.apply(environment);
 
 		var temp = function.simplify(environment, param);
@@ -57,6 +77,57 @@ public class UnaryFunctionCall implements Node {
 		throw new UnsupportedOperationException();
 	}
 
+	@NotNull
+	@Override
+	public DoubleUnaryOperator compile(@NotNull String variable) {
+		var function = this.function;
+		var param = this.param.compile(variable);
+
+		return x -> function.apply(param.applyAsDouble(x));
+	}
+
+	@NotNull
+	@Override
+	public Evaluator compile(@NotNull List<String> variables) {
+		var function = this.function;
+		var param = this.param.compile(variables);
+
+		return v -> function.apply(param.evaluate(v));
+	}
+
+	@NotNull
+	@Override
+	public Node bind(@NotNull VariableSlots layout) {
+		return new UnaryFunctionCall(function, param.bind(layout));
+	}
+
+	@Override
+	public double evalDouble(@NotNull VariableSlots slots) {
+		try {
+			return function.apply(param.evalDouble(slots));
+		} catch (RuntimeException e) {
+			return Double.NaN;
+		}
+	}
+
+	@Override
+	public void evalDual(@NotNull VariableSlots slots, int slot, @NotNull Dual result) {
+		param.evalDual(slots, slot, result);
+		var p = result.getValue();
+		var dp = result.getSlope();
+
+		try {
+			result.set(function.apply(p), dp == 0 ? 0 : function.derivative(p) * dp);
+		} catch (RuntimeException e) {
+			result.set(Double.NaN, Double.NaN);
+		}
+	}
+
+	@Override
+	public int getSize() {
+		return 1 + param.getSize();
+	}
+
 	@Override
 	public double getDegree(@NotNull String variable) {
 		return param.getDegree(variable) == 0 ? 0 : Integer.MAX_VALUE;
@@ -64,7 +135,7 @@ public class UnaryFunctionCall implements Node {
 
 	@Override
 	public boolean equals(Object obj) {
-		return obj instanceof UnaryFunctionCall u && u.function.equals(function) && u.param.equals(param);
+		return this == obj || obj instanceof Node n && n.canonical() instanceof UnaryFunctionCall u && u.function.equals(function) && u.param.equals(param);
 	}
 
 	@Override
@@ -1,22 +1,43 @@
 package de.mineking.math.node;
 
 import de.mineking.math.MathEnvironment;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.Evaluator;
+import de.mineking.math.compile.VariableSlots;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
 
 public class Variable implements Node {
 	public final static Variable defaultVariable = create(Node.defaultVariable);
 
 	private final String name;
 
+	//Set on bound copies only
+	private final List<String> layout;
+	private final int slot;
+
 	Variable(@NotNull String name) {
+		this(name, null, -1);
+	}
+
+	private Variable(@NotNull String name, @Nullable List<String> layout, int slot) {
 		this.name = name;
+		this.layout = layout;
+		this.slot = slot;
+	}
+
+	@NotNull
+	public String getName() {
+		return name;
 	}
 
 	@NotNull
 	public static Variable create(@NotNull String name) {
-		return new Variable(name);
+		return NodeInterner.intern(new Variable(name));
 	}
 
 	@NotNull
@@ -40,6 +61,41 @@ public class Variable implements Node {
 				: Product.create(this, create(variable));
 	}
 
+	@NotNull
+	@Override
+	public DoubleUnaryOperator compile(@NotNull String variable) {
+		if (!variable.equals(name)) throw new UnsupportedOperationException("Unknown variable: " + name);
+		return x -> x;
+	}
+
+	@NotNull
+	@Override
+	public Evaluator compile(@NotNull List<String> variables) {
+		var index = variables.indexOf(name);
+		if (index < 0) throw new UnsupportedOperationException("Unknown variable: " + name);
+
+		return v -> v[index];
+	}
+
+	@NotNull
+	@Override
+	public Node bind(@NotNull VariableSlots layout) {
+		return new Variable(name, layout.getNames(), layout.getSlot(name));
+	}
+
+	@Override
+	public double evalDouble(@NotNull VariableSlots slots) {
+		var index = slots.getSlot(layout, slot, name);
+		return index < 0 ? Double.NaN : slots.get(index);
+	}
+
+	@Override
+	public void evalDual(@NotNull VariableSlots slots, int slot, @NotNull Dual result) {
+		var index = slots.getSlot(layout, this.slot, name);
+		if (index < 0) result.set(Double.NaN, Double.NaN);
+		else result.set(slots.get(index), index == slot ? 1 : 0);
+	}
+
 	@Override
 	public double getDegree(@NotNull String variable) {
 		return variable.equals(name) ? 1 : 0;
@@ -52,7 +108,7 @@ public class Variable implements Node {
 
 	@Override
 	public boolean equals(Object obj) {
-		return obj instanceof Variable v && v.name.equals(name);
+		return this == obj || obj instanceof Node n && n.canonical() instanceof Variable v && v.name.equals(name);
 	}
 
 	@Override
@@ -0,0 +1,179 @@
+package de.mineking.math.numeric;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serial;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleUnaryOperator;
+
+//Adaptive Gauss-Kronrod (7/15 points) quadrature. Intervals whose error estimate exceeds their share of the tolerance are bisected. Immutable: modifiers return derived integrators
+public class Integrator {
+	public final static Integrator DEFAULT = new Integrator(1e-10, 1e-10, 50, 1_000_000, null);
+
+	//Subintervals above this depth are small enough that forking costs more than it saves
+	private final static int PARALLEL_DEPTH = 12;
+
+	private final static double[] NODES = {
+			0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+			0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+			0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+			0.207784955007898467600689403773245, 0
+	};
+
+	private final static double[] KRONROD_WEIGHTS = {
+			0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+			0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+			0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+			0.204432940075298892414161999234649, 0.209482141084727828012999174891714
+	};
+
+	//Weights of the embedded Gauss rule, which uses every second Kronrod node
+	private final static double[] GAUSS_WEIGHTS = {
+			0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+			0.381830050505118944950369775488975, 0.417959183673469387755102040816327
+	};
+
+	private final double absoluteTolerance;
+	private final double relativeTolerance;
+	private final int maxDepth;
+	private final int maxEvaluations;
+	private final ForkJoinPool pool;
+
+	private Integrator(double absoluteTolerance, double relativeTolerance, int maxDepth, int maxEvaluations, @Nullable ForkJoinPool pool) {
+		this.absoluteTolerance = absoluteTolerance;
+		this.relativeTolerance = relativeTolerance;
+		this.maxDepth = maxDepth;
+		this.maxEvaluations = maxEvaluations;
+		this.pool = pool;
+	}
+
+	@NotNull
+	public Integrator tolerance(double absolute, double relative) {
+		return new Integrator(absolute, relative, maxDepth, maxEvaluations, pool);
+	}
+
+	@NotNull
+	public Integrator maxDepth(int maxDepth) {
+		return new Integrator(absoluteTolerance, relativeTolerance, maxDepth, maxEvaluations, pool);
+	}
+
+	//Upper bound for integrand evaluations. The first rule always runs, further bisections stop once they would exceed the limit and the result is marked as limited
+	@NotNull
+	public Integrator maxEvaluations(int maxEvaluations) {
+		return new Integrator(absoluteTolerance, relativeTolerance, maxDepth, maxEvaluations, pool);
+	}
+
+	//Splits subintervals across the pool. Only worth it for integrands that are expensive to evaluate, the integrand has to be thread-safe
+	@NotNull
+	public Integrator parallel(@Nullable ForkJoinPool pool) {
+		return new Integrator(absoluteTolerance, relativeTolerance, maxDepth, maxEvaluations, pool);
+	}
+
+	@NotNull
+	public Integrator parallel() {
+		return parallel(ForkJoinPool.commonPool());
+	}
+
+	@NotNull
+	public Result integrate(@NotNull DoubleUnaryOperator function, double lowerBound, double upperBound) {
+		if (lowerBound == upperBound) return new Result(0, 0, 0, false);
+		if (lowerBound > upperBound) return integrate(function, upperBound, lowerBound).negate();
+
+		var estimate = rule(function, lowerBound, upperBound);
+		var tolerance = Math.max(absoluteTolerance, relativeTolerance * Math.abs(estimate.value));
+
+		var run = new Run(function, maxDepth, pool, new AtomicInteger(maxEvaluations - estimate.evaluations));
+		var task = new Task(run, lowerBound, upperBound, estimate, tolerance, 0);
+		return pool == null ? task.compute() : pool.invoke(task);
+	}
+
+	@NotNull
+	private static Result rule(@NotNull DoubleUnaryOperator function, double lowerBound, double upperBound) {
+		var center = (lowerBound + upperBound) / 2;
+		var radius = (upperBound - lowerBound) / 2;
+
+		var centerValue = function.applyAsDouble(center);
+		var kronrod = centerValue * KRONROD_WEIGHTS[7];
+		var gauss = centerValue * GAUSS_WEIGHTS[3];
+
+		for (int i = 0; i < 7; i++) {
+			var offset = radius * NODES[i];
+			var sum = function.applyAsDouble(center - offset) + function.applyAsDouble(center + offset);
+
+			kronrod += sum * KRONROD_WEIGHTS[i];
+			if (i % 2 == 1) gauss += sum * GAUSS_WEIGHTS[i / 2];
+		}
+
+		return new Result(kronrod * radius, Math.abs((kronrod - gauss) * radius), 15, false);
+	}
+
+	//State shared by all subintervals of one integration. The evaluation budget is shared as well, so parallel runs that hit the limit may refine different intervals
+	private record Run(@NotNull DoubleUnaryOperator function, int maxDepth, @Nullable ForkJoinPool pool, @NotNull AtomicInteger remaining) {
+	}
+
+	private static class Task extends RecursiveTask<Result> {
+		@Serial
+		private final static long serialVersionUID = 1L;
+
+		private final Run run;
+		private final double lowerBound;
+		private final double upperBound;
+		private final Result estimate;
+		private final double tolerance;
+		private final int depth;
+
+		private Task(@NotNull Run run, double lowerBound, double upperBound, @NotNull Result estimate, double tolerance, int depth) {
+			this.run = run;
+			this.lowerBound = lowerBound;
+			this.upperBound = upperBound;
+			this.estimate = estimate;
+			this.tolerance = tolerance;
+			this.depth = depth;
+		}
+
+		@NotNull
+		@Override
+		protected Result compute() {
+			var center = (lowerBound + upperBound) / 2;
+
+			if (estimate.error <= tolerance || depth >= run.maxDepth || Double.isNaN(estimate.value)) return estimate;
+			if (center <= lowerBound || center >= upperBound) return estimate; //Interval cannot be split any further
+			if (run.remaining.addAndGet(-2 * estimate.evaluations) < 0) return estimate.limit(); //Both halves together would exceed the evaluation limit
+
+			var left = new Task(run, lowerBound, center, rule(run.function, lowerBound, center), tolerance / 2, depth + 1);
+			var right = new Task(run, center, upperBound, rule(run.function, center, upperBound), tolerance / 2, depth + 1);
+
+			if (run.pool == null || depth >= PARALLEL_DEPTH) return left.compute().add(right.compute()).count(estimate.evaluations);
+
+			left.fork();
+			var result = right.compute();
+			return left.join().add(result).count(estimate.evaluations);
+		}
+	}
+
+	//Limited is set if the evaluation limit stopped refinement before the tolerance was reached
+	public record Result(double value, double error, int evaluations, boolean limited) {
+		@NotNull
+		private Result add(@NotNull Result other) {
+			return new Result(value + other.value, error + other.error, evaluations + other.evaluations, limited || other.limited);
+		}
+
+		@NotNull
+		private Result count(int evaluations) {
+			return new Result(value, error, this.evaluations + evaluations, limited);
+		}
+
+		@NotNull
+		private Result limit() {
+			return new Result(value, error, evaluations, true);
+		}
+
+		@NotNull
+		private Result negate() {
+			return new Result(-value, error, evaluations, limited);
+		}
+	}
+}
@@ -0,0 +1,253 @@
+package de.mineking.math.numeric;
+
+import de.mineking.math.MathFunction;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.VariableSlots;
+import de.mineking.math.node.Node;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+//Solves f(x) = 0 numerically. Functions are evaluated through evalDual, which yields the slope for Newton steps without building a symbolic derivative. Immutable: modifiers return derived root finders
+public class RootFinder {
+	public final static RootFinder DEFAULT = new RootFinder(1e-12, 100, null);
+
+	private final static double EPSILON = Math.ulp(1.0);
+
+	private final double tolerance;
+	private final int maxIterations;
+	private final Executor executor;
+
+	private RootFinder(double tolerance, int maxIterations, @Nullable Executor executor) {
+		this.tolerance = tolerance;
+		this.maxIterations = maxIterations;
+		this.executor = executor;
+	}
+
+	@NotNull
+	public RootFinder tolerance(double tolerance) {
+		return new RootFinder(tolerance, maxIterations, executor);
+	}
+
+	@NotNull
+	public RootFinder maxIterations(int maxIterations) {
+		return new RootFinder(tolerance, maxIterations, executor);
+	}
+
+	//Used for batches, defaults to the common ForkJoin pool
+	@NotNull
+	public RootFinder executor(@Nullable Executor executor) {
+		return new RootFinder(tolerance, maxIterations, executor);
+	}
+
+	@NotNull
+	public Result solve(@NotNull MathFunction function, double lowerBound, double upperBound) {
+		return solve(Problem.of(function, lowerBound, upperBound));
+	}
+
+	//Brent's method. Each iteration first tries a Newton step and only falls back to interpolation or bisection if the step would leave the bracket or converge too slowly
+	@NotNull
+	public Result solve(@NotNull Problem problem) {
+		var evaluation = new Evaluation(problem);
+
+		double a = problem.lowerBound, b = problem.upperBound, c = b;
+		double fa = evaluation.value(a), da = evaluation.slope;
+		double fb = evaluation.value(b), db = evaluation.slope;
+		double fc = fb, dc = db;
+		double d = b - a, e = d;
+
+		if (Double.isNaN(fa) || Double.isNaN(fb)) return evaluation.result(Double.NaN, Double.NaN, 0, Status.NOT_FINITE);
+		if (fa == 0) return evaluation.result(a, fa, 0, Status.CONVERGED);
+		if (fb == 0) return evaluation.result(b, fb, 0, Status.CONVERGED);
+		if (Math.signum(fa) == Math.signum(fb)) return evaluation.result(Double.NaN, Double.NaN, 0, Status.NO_BRACKET);
+
+		for (int i = 1; i <= maxIterations; i++) {
+			if (Math.signum(fb) == Math.signum(fc)) {
+				c = a;
+				fc = fa;
+				dc = da;
+				e = d = b - a;
+			}
+
+			//b is always the best estimate, c the other end of the bracket
+			if (Math.abs(fc) < Math.abs(fb)) {
+				a = b;
+				b = c;
+				c = a;
+				fa = fb;
+				fb = fc;
+				fc = fa;
+				da = db;
+				db = dc;
+				dc = da;
+			}
+
+			var tol = 2 * EPSILON * Math.abs(b) + 0.5 * tolerance;
+			var middle = 0.5 * (c - b);
+
+			if (Math.abs(middle) <= tol || fb == 0) return evaluation.result(b, fb, i, Status.CONVERGED);
+
+			var newton = -fb / db;
+			if (Double.isFinite(newton) && Math.signum(newton) == Math.signum(middle) && Math.abs(newton) < Math.abs(middle) && Math.abs(newton) < 0.5 * Math.abs(e)) {
+				e = d;
+				d = newton;
+				evaluation.newtonSteps++;
+			} else if (Math.abs(e) >= tol && Math.abs(fa) > Math.abs(fb)) {
+				double p, q;
+				var s = fb / fa;
+
+				if (a == c) {
+					//Secant
+					p = 2 * middle * s;
+					q = 1 - s;
+				} else {
+					//Inverse quadratic interpolation
+					var r = fb / fc;
+					q = fa / fc;
+					p = s * (2 * middle * q * (q - r) - (b - a) * (r - 1));
+					q = (q - 1) * (r - 1) * (s - 1);
+				}
+
+				if (p > 0) q = -q;
+				else p = -p;
+
+				if (2 * p < Math.min(3 * middle * q - Math.abs(tol * q), Math.abs(e * q))) {
+					e = d;
+					d = p / q;
+				} else {
+					d = middle;
+					e = d;
+				}
+			} else {
+				d = middle;
+				e = d;
+			}
+
+			a = b;
+			fa = fb;
+			da = db;
+
+			b += Math.abs(d) > tol ? d : Math.copySign(tol, middle);
+			fb = evaluation.value(b);
+			db = evaluation.slope;
+
+			if (Double.isNaN(fb)) return evaluation.result(b, fb, i, Status.NOT_FINITE);
+		}
+
+		return evaluation.result(b, fb, maxIterations, Status.MAX_ITERATIONS);
+	}
+
+	//Plain Newton iteration without a bracket. Fast near simple roots but may diverge
+	@NotNull
+	public Result newton(@NotNull MathFunction function, double start) {
+		var evaluation = new Evaluation(Problem.of(function, start, start));
+		var x = start;
+
+		for (int i = 1; i <= maxIterations; i++) {
+			var value = evaluation.value(x);
+			if (value == 0) return evaluation.result(x, value, i, Status.CONVERGED);
+
+			var step = value / evaluation.slope;
+			if (!Double.isFinite(step)) return evaluation.result(x, value, i, Status.NOT_FINITE);
+
+			x -= step;
+			evaluation.newtonSteps++;
+
+			if (Math.abs(step) <= 2 * EPSILON * Math.abs(x) + 0.5 * tolerance) return evaluation.result(x, evaluation.value(x), i, Status.CONVERGED);
+		}
+
+		return evaluation.result(x, evaluation.value(x), maxIterations, Status.MAX_ITERATIONS);
+	}
+
+	//Scans the interval for sign changes on a uniform grid and solves every bracket. Roots that touch zero without changing sign are only found if they lie exactly on a grid point
+	@NotNull
+	public List<Result> findRoots(@NotNull MathFunction function, double lowerBound, double upperBound, int samples) {
+		var range = new Sampler.Range(lowerBound, upperBound, samples + 1);
+		var values = function.sample(lowerBound, upperBound, samples + 1);
+
+		var result = new ArrayList<Result>();
+		for (int i = 0; i < samples; i++) {
+			if (values[i] == 0) result.add(solve(function, range.get(i), range.get(i)));
+			else if (values[i + 1] != 0 && Math.signum(values[i]) == -Math.signum(values[i + 1])) result.add(solve(function, range.get(i), range.get(i + 1)));
+		}
+
+		if (values[samples] == 0) result.add(solve(function, upperBound, upperBound));
+		return result;
+	}
+
+	//Problems are independent, so each one is solved as a separate task. Results are in the same order as the problems
+	@NotNull
+	public List<Result> solveAll(@NotNull List<Problem> problems) {
+		var executor = this.executor == null ? ForkJoinPool.commonPool() : this.executor;
+		var futures = problems.stream().map(p -> CompletableFuture.supplyAsync(() -> solve(p), executor)).toList();
+
+		return futures.stream().map(CompletableFuture::join).toList();
+	}
+
+	private static class Evaluation {
+		private final Node node;
+		private final VariableSlots slots;
+		private final int slot;
+		private final Dual dual = new Dual();
+
+		private double slope;
+
+		private int evaluations;
+		private int newtonSteps;
+
+		private Evaluation(@NotNull Problem problem) {
+			this.node = problem.node;
+			this.slots = problem.slots.copy(); //Problems may share their slots, so every evaluation writes into its own copy
+			this.slot = problem.slot;
+		}
+
+		private double value(double x) {
+			slots.set(slot, x);
+			node.evalDual(slots, slot, dual);
+
+			evaluations++;
+			slope = dual.getSlope();
+
+			return dual.getValue();
+		}
+
+		@NotNull
+		private Result result(double root, double value, int iterations, @NotNull Status status) {
+			return new Result(root, value, status, iterations, evaluations, newtonSteps);
+		}
+	}
+
+	//Other variables of the node keep the values they have in slots, which allows solving the same expression for many parameter values
+	public record Problem(@NotNull Node node, @NotNull VariableSlots slots, int slot, double lowerBound, double upperBound) {
+		@NotNull
+		public static Problem of(@NotNull Node node, @NotNull VariableSlots slots, @NotNull String variable, double lowerBound, double upperBound) {
+			var slot = slots.getSlot(variable);
+			if (slot < 0) throw new IllegalArgumentException("Unknown variable: " + variable);
+
+			return new Problem(node.bind(slots), slots, slot, lowerBound, upperBound);
+		}
+
+		@NotNull
+		public static Problem of(@NotNull MathFunction function, double lowerBound, double upperBound) {
+			return of(function, VariableSlots.of(Node.defaultVariable), Node.defaultVariable, lowerBound, upperBound);
+		}
+	}
+
+	public record Result(double root, double value, @NotNull Status status, int iterations, int evaluations, int newtonSteps) {
+		public boolean isConverged() {
+			return status == Status.CONVERGED;
+		}
+	}
+
+	public enum Status {
+		CONVERGED,
+		NO_BRACKET,
+		MAX_ITERATIONS,
+		NOT_FINITE
+	}
+}
@@ -0,0 +1,161 @@
+package de.mineking.math.numeric;
+
+import de.mineking.math.MathFunction;
+import de.mineking.math.compile.BatchEvaluator;
+import de.mineking.math.node.Node;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Evaluates functions on uniform grids. The grid is split into chunks that are evaluated in parallel and written into the caller's array. Immutable: modifiers return derived samplers
+public class Sampler {
+	public final static Sampler DEFAULT = new Sampler(null, 4096, null);
+
+	private final Executor executor;
+	private final int chunkSize;
+	private final Progress progress;
+
+	private Sampler(@Nullable Executor executor, int chunkSize, @Nullable Progress progress) {
+		this.executor = executor;
+		this.chunkSize = chunkSize;
+		this.progress = progress;
+	}
+
+	//Defaults to the common ForkJoin pool
+	@NotNull
+	public Sampler executor(@Nullable Executor executor) {
+		return new Sampler(executor, chunkSize, progress);
+	}
+
+	//Number of points per chunk. The default keeps the input and output columns of a chunk within the L2 cache
+	@NotNull
+	public Sampler chunkSize(int chunkSize) {
+		if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size has to be positive");
+		return new Sampler(executor, chunkSize, progress);
+	}
+
+	@NotNull
+	public Sampler progress(@Nullable Progress progress) {
+		return new Sampler(executor, chunkSize, progress);
+	}
+
+	//Cancelling the returned future stops all chunks that have not started yet
+	@NotNull
+	public CompletableFuture<double[]> sampleAsync(@NotNull MathFunction function, @NotNull Range range, @NotNull double[] out) {
+		if (out.length < range.count) throw new IllegalArgumentException("Output array is shorter than the grid");
+
+		return run(range.count, out, (start, end) -> {
+			var values = new double[end - start];
+			var result = new double[end - start];
+
+			for (int i = start; i < end; i++) values[i - start] = range.get(i);
+
+			function.evaluate(values, result);
+			System.arraycopy(result, 0, out, start, result.length);
+		});
+	}
+
+	//Samples a two-variable expression in row-major order: out[j * x.count + i] is the value at x.get(i), y.get(j)
+	@NotNull
+	public CompletableFuture<double[]> sampleAsync(@NotNull Node node, @NotNull String xVariable, @NotNull Range x, @NotNull String yVariable, @NotNull Range y, @NotNull double[] out) {
+		var count = Math.multiplyExact(x.count, y.count);
+		if (out.length < count) throw new IllegalArgumentException("Output array is shorter than the grid");
+
+		var evaluator = BatchEvaluator.compile(node, List.of(xVariable, yVariable));
+
+		return run(count, out, (start, end) -> {
+			var columns = new double[2][end - start];
+			var result = new double[end - start];
+
+			for (int i = start; i < end; i++) {
+				columns[0][i - start] = x.get(i % x.count);
+				columns[1][i - start] = y.get(i / x.count);
+			}
+
+			evaluator.evaluate(columns, result);
+			System.arraycopy(result, 0, out, start, result.length);
+		});
+	}
+
+	@NotNull
+	public double[] sample(@NotNull MathFunction function, @NotNull Range range, @NotNull double[] out) {
+		return sampleAsync(function, range, out).join();
+	}
+
+	@NotNull
+	public double[] sample(@NotNull Node node, @NotNull String xVariable, @NotNull Range x, @NotNull String yVariable, @NotNull Range y, @NotNull double[] out) {
+		return sampleAsync(node, xVariable, x, yVariable, y, out).join();
+	}
+
+	@NotNull
+	private CompletableFuture<double[]> run(int count, @NotNull double[] out, @NotNull Chunk chunk) {
+		var future = new CompletableFuture<double[]>();
+		var chunks = Math.max(1, (count + chunkSize - 1) / chunkSize);
+
+		if (chunks == 1) {
+			//Not worth a round trip through the executor
+			try {
+				chunk.evaluate(0, count);
+				if (progress != null) progress.update(1, 1);
+
+				future.complete(out);
+			} catch (RuntimeException e) {
+				future.completeExceptionally(e);
+			}
+
+			return future;
+		}
+
+		var executor = this.executor == null ? ForkJoinPool.commonPool() : this.executor;
+		var completed = new AtomicInteger();
+
+		for (int i = 0; i < chunks; i++) {
+			var start = i * chunkSize;
+			var end = Math.min(count, start + chunkSize);
+
+			executor.execute(() -> {
+				if (future.isDone()) return; //Cancelled or failed
+
+				try {
+					chunk.evaluate(start, end);
+				} catch (RuntimeException e) {
+					future.completeExceptionally(e);
+					return;
+				}
+
+				var done = completed.incrementAndGet();
+				if (progress != null) progress.update(done, chunks);
+				if (done == chunks) future.complete(out);
+			});
+		}
+
+		return future;
+	}
+
+	private interface Chunk {
+		void evaluate(int start, int end);
+	}
+
+	public interface Progress {
+		void update(int completedChunks, int totalChunks);
+	}
+
+	//count points from lower to upper, both inclusive
+	public record Range(double lower, double upper, int count) {
+		public Range {
+			if (count <= 0) throw new IllegalArgumentException("Count has to be positive");
+		}
+
+		public double get(int index) {
+			if (count == 1) return lower;
+			if (index == count - 1) return upper;
+
+			return lower + (upper - lower) * index / (count - 1);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package de.mineking.math.parse;
+
+import de.mineking.math.MathFunction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+public class BulkParser {
+	private final Parser parser;
+
+	private Executor executor = ForkJoinPool.commonPool();
+	private int chunkSize = 1024;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	public BulkParser(@NotNull Parser parser) {
+		this.parser = parser;
+	}
+
+	@NotNull
+	public BulkParser executor(@NotNull Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	@NotNull
+	public BulkParser chunkSize(int chunkSize) {
+		if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize has to be positive");
+
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	@NotNull
+	public BulkParser parallelism(int parallelism) {
+		if (parallelism <= 0) throw new IllegalArgumentException("parallelism has to be positive");
+
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	//Results are passed to the consumer on the calling thread and in input order. Blank lines are skipped but still counted.
+	//At most chunkSize * (parallelism + 1) lines are held in memory at once, independent of the input size.
+	public void parse(@NotNull Reader reader, @NotNull Consumer<Result> consumer) throws IOException {
+		var input = reader instanceof BufferedReader b ? b : new BufferedReader(reader);
+		var pending = new ArrayDeque<CompletableFuture<List<Result>>>();
+
+		var line = 0L;
+		var chunk = new ArrayList<String>(chunkSize);
+		var chunkStart = 1L;
+
+		for (var text = input.readLine(); text != null; text = input.readLine()) {
+			if (chunk.isEmpty()) chunkStart = line + 1;
+
+			chunk.add(text);
+			line++;
+
+			if (chunk.size() == chunkSize) {
+				if (pending.size() >= parallelism) deliver(pending.poll(), consumer);
+
+				pending.add(submit(chunk, chunkStart));
+				chunk = new ArrayList<>(chunkSize);
+			}
+		}
+
+		if (!chunk.isEmpty()) pending.add(submit(chunk, chunkStart));
+		while (!pending.isEmpty()) deliver(pending.poll(), consumer);
+	}
+
+	public void parse(@NotNull ReadableByteChannel channel, @NotNull Consumer<Result> consumer) throws IOException {
+		parse(Channels.newReader(channel, StandardCharsets.UTF_8), consumer);
+	}
+
+	public void parse(@NotNull Path path, @NotNull Consumer<Result> consumer) throws IOException {
+		try (var reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			parse(reader, consumer);
+		}
+	}
+
+	@NotNull
+	private CompletableFuture<List<Result>> submit(@NotNull List<String> lines, long start) {
+		return CompletableFuture.supplyAsync(() -> {
+			var results = new ArrayList<Result>(lines.size());
+
+			for (int i = 0; i < lines.size(); i++) {
+				var text = lines.get(i);
+				if (text.isBlank()) continue;
+
+				try {
+					results.add(new Result(start + i, text, parser.parse(text), null));
+				} catch (ParseException e) {
+					results.add(new Result(start + i, text, null, e));
+				}
+			}
+
+			return results;
+		}, executor);
+	}
+
+	private void deliver(@NotNull CompletableFuture<List<Result>> future, @NotNull Consumer<Result> consumer) {
+		try {
+			future.join().forEach(consumer);
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException r) throw r;
+			if (e.getCause() instanceof Error r) throw r;
+			throw e;
+		}
+	}
+
+	public record Result(long line, @NotNull String input, @Nullable MathFunction function, @Nullable ParseException error) {
+		public boolean isSuccess() {
+			return error == null;
+		}
+	}
+}
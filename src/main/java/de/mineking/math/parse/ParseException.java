@@ -1,4 +1,14 @@
 package de.mineking.math.parse;
 
 public class ParseException extends RuntimeException {
+	private final int position;
+
+	public ParseException(String message, int position) {
+		super(message + " at position " + position);
+		this.position = position;
+	}
+
+	public int getPosition() {
+		return position;
+	}
 }
@@ -1,12 +1,294 @@
 package de.mineking.math.parse;
 
 import de.mineking.math.MathFunction;
+import de.mineking.math.function.BinaryFunction;
+import de.mineking.math.function.DefaultFunctions;
+import de.mineking.math.function.UnaryFunction;
+import de.mineking.math.metrics.MathEvents;
+import de.mineking.math.metrics.ParseEvent;
+import de.mineking.math.node.*;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
 public class Parser {
+	private final static int SUM = 10;
+	private final static int PRODUCT = 20;
+	private final static int PREFIX = 30;
+	private final static int EXPONENT = 40;
+
+	private final static double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private final Map<String, UnaryFunction> unaryFunctions = new HashMap<>();
+	private final Map<String, BinaryFunction> binaryFunctions = new HashMap<>();
+	private final Map<String, Node> constants = new HashMap<>();
+	private int maxNameLength = 0;
+
+	public Parser() {
+		function("sin", DefaultFunctions.sin);
+		function("cos", DefaultFunctions.cos);
+		function("tan", DefaultFunctions.tan);
+		function("ln", DefaultFunctions.ln);
+		function("sqrt", DefaultFunctions.sqrt);
+		function("√", DefaultFunctions.sqrt);
+
+		function("log", DefaultFunctions.log);
+		function("root", DefaultFunctions.root);
+		function("√", DefaultFunctions.root);
+
+		constant("e", Constant.E);
+		constant("pi", Constant.PI);
+		constant("π", Constant.PI);
+		constant("∞", Constant.POSITIVE_INFINITY);
+		constant("i", ImaginaryUnit.I);
+	}
+
+	@NotNull
+	public Parser function(@NotNull String name, @NotNull UnaryFunction function) {
+		unaryFunctions.put(name, function);
+		maxNameLength = Math.max(maxNameLength, name.length());
+		return this;
+	}
+
+	@NotNull
+	public Parser function(@NotNull String name, @NotNull BinaryFunction function) {
+		binaryFunctions.put(name, function);
+		maxNameLength = Math.max(maxNameLength, name.length());
+		return this;
+	}
+
 	@NotNull
-	public MathFunction parse(@NotNull String input) throws ParseException {
-		//TODO
-		return null;
+	public Parser constant(@NotNull String name, @NotNull Node value) {
+		constants.put(name, value);
+		maxNameLength = Math.max(maxNameLength, name.length());
+		return this;
+	}
+
+	@NotNull
+	public MathFunction parse(@NotNull CharSequence input) throws ParseException {
+		var event = new ParseEvent();
+		if (!event.isEnabled()) return parseUnrecorded(input);
+
+		var depth = MathEvents.enter();
+		event.begin();
+
+		try {
+			var result = parseUnrecorded(input);
+
+			event.end();
+			if (event.shouldCommit()) MathEvents.commit(event, "parse", input.length(), result, depth);
+
+			return result;
+		} finally {
+			MathEvents.exit();
+		}
+	}
+
+	@NotNull
+	private MathFunction parseUnrecorded(@NotNull CharSequence input) throws ParseException {
+		var cursor = new Cursor(input);
+		var result = cursor.expression(0);
+
+		cursor.skipWhitespace();
+		if (cursor.position < input.length()) throw new ParseException("Unexpected '" + input.charAt(cursor.position) + "'", cursor.position);
+
+		return MathFunction.create(result);
+	}
+
+	public void parseLines(@NotNull Reader reader, @NotNull Consumer<BulkParser.Result> consumer) throws IOException {
+		new BulkParser(this).parse(reader, consumer);
+	}
+
+	private class Cursor {
+		private final CharSequence input;
+		private int position = 0;
+
+		private Cursor(@NotNull CharSequence input) {
+			this.input = input;
+		}
+
+		private void skipWhitespace() {
+			while (position < input.length() && Character.isWhitespace(input.charAt(position))) position++;
+		}
+
+		private char peek() {
+			skipWhitespace();
+			return position < input.length() ? input.charAt(position) : 0;
+		}
+
+		private void expect(char c) {
+			if (peek() != c) {
+				if (position >= input.length()) throw new ParseException("Expected '" + c + "' but reached end of input", position);
+				throw new ParseException("Expected '" + c + "' but found '" + input.charAt(position) + "'", position);
+			}
+
+			position++;
+		}
+
+		@NotNull
+		private Node expression(int power) {
+			var left = prefix();
+
+			while (true) {
+				var c = peek();
+
+				if ((c == '+' || c == '-') && SUM > power) {
+					position++;
+					var right = expression(SUM);
+					left = Sum.create(left, c == '-' ? right.negate() : right);
+				} else if ((c == '*' || c == '·') && PRODUCT > power) {
+					position++;
+					left = Product.create(left, expression(PRODUCT));
+				} else if (c == '/' && PRODUCT > power) {
+					position++;
+					left = Fraction.create(left, expression(PRODUCT));
+				} else if (c == '^' && EXPONENT > power) {
+					position++;
+					left = Exponent.create(left, expression(EXPONENT - 1)); //Right associative
+				} else if (startsOperand(c) && PRODUCT > power) left = Product.create(left, expression(PRODUCT)); //Implicit multiplication like 2x or 2(x + 1)
+				else return left;
+			}
+		}
+
+		private boolean startsOperand(char c) {
+			return c == '(' || c == '√' || c == '∞' || Character.isLetterOrDigit(c);
+		}
+
+		@NotNull
+		private Node prefix() {
+			var c = peek();
+			var start = position;
+
+			if (c == 0) throw new ParseException("Unexpected end of input", position);
+
+			if (c == '(') {
+				position++;
+				var result = expression(0);
+				expect(')');
+
+				return result;
+			} else if (c == '-') {
+				position++;
+				return expression(PREFIX).negate();
+			} else if (c == '+') {
+				position++;
+				return expression(PREFIX);
+			} else if (Character.isDigit(c) || c == '.') return number();
+			else if (c == '√' || c == '∞') {
+				position++;
+				return identifier(String.valueOf(c), start);
+			} else if (Character.isLetter(c)) {
+				//Letters are split like 2pix = 2 pi x or sinx = sin x: the longest known constant or function name at the start wins.
+				//Otherwise the variable is a single letter with an optional index like x1 or x_max, so xy = x y
+				var end = position;
+				while (end < input.length() && end - position < maxNameLength && (Character.isLetterOrDigit(input.charAt(end)) || input.charAt(end) == '_')) end++;
+
+				for (; end > position; end--) {
+					var name = input.subSequence(position, end).toString();
+
+					if (constants.containsKey(name) || unaryFunctions.containsKey(name) || binaryFunctions.containsKey(name)) {
+						position = end;
+						return identifier(name, start);
+					}
+				}
+
+				position++;
+				while (position < input.length() && Character.isDigit(input.charAt(position))) position++;
+
+				if (position < input.length() && input.charAt(position) == '_') {
+					position++;
+					while (position < input.length() && Character.isLetterOrDigit(input.charAt(position))) position++;
+				}
+
+				return Variable.create(input.subSequence(start, position).toString());
+			}
+
+			throw new ParseException("Unexpected '" + c + "'", position);
+		}
+
+		@NotNull
+		private Node identifier(@NotNull String name, int start) {
+			var constant = constants.get(name);
+			if (constant != null) return constant;
+
+			var unary = unaryFunctions.get(name);
+			var binary = binaryFunctions.get(name);
+
+			if (unary == null && binary == null) return Variable.create(name);
+
+			if (peek() != '(') {
+				if (unary == null) throw new ParseException("Function '" + name + "' expects 2 arguments", start);
+				return UnaryFunctionCall.create(unary, expression(PREFIX)); //Allows sin x or √x
+			}
+
+			position++;
+			var first = expression(0);
+
+			if (peek() == ',') {
+				position++;
+				var second = expression(0);
+				expect(')');
+
+				if (binary == null) throw new ParseException("Function '" + name + "' expects 1 argument", start);
+				return BinaryFunctionCall.create(binary, first, second);
+			}
+
+			expect(')');
+
+			if (unary == null) throw new ParseException("Function '" + name + "' expects 2 arguments", start);
+			return UnaryFunctionCall.create(unary, first);
+		}
+
+		@NotNull
+		private Node number() {
+			var start = position;
+
+			var mantissa = 0L;
+			var digits = 0;
+			var scale = 0;
+			var fraction = false;
+
+			for (; position < input.length(); position++) {
+				var c = input.charAt(position);
+
+				if (c == '.' && !fraction) fraction = true;
+				else if (c >= '0' && c <= '9') {
+					mantissa = mantissa * 10 + (c - '0');
+					digits++;
+					if (fraction) scale++;
+				} else break;
+			}
+
+			if (digits == 0) throw new ParseException("Expected number", start);
+
+			//Scientific notation like 1e5 or 2.5E-3. An e that is not followed by digits is Euler's number, so 2e = 2 e
+			var exponent = 0;
+			var end = position + 1;
+			if (end < input.length() && (input.charAt(end) == '+' || input.charAt(end) == '-')) end++;
+
+			if (position < input.length() && (input.charAt(position) == 'e' || input.charAt(position) == 'E') && end < input.length() && Character.isDigit(input.charAt(end))) {
+				var negative = input.charAt(end - 1) == '-';
+
+				for (position = end; position < input.length() && Character.isDigit(input.charAt(position)); position++) {
+					exponent = Math.min(exponent * 10 + (input.charAt(position) - '0'), 100_000);
+				}
+
+				if (negative) exponent = -exponent;
+			}
+
+			//Both the mantissa and the power of ten are exact, so a single multiplication or division rounds correctly
+			var power = exponent - scale;
+			if (digits <= 15 && power >= 0 && power < POWERS_OF_TEN.length) return Constant.create(mantissa * POWERS_OF_TEN[power]);
+			if (digits <= 15 && power < 0 && -power < POWERS_OF_TEN.length) return Constant.create(mantissa / POWERS_OF_TEN[-power]);
+
+			return Constant.create(Double.parseDouble(input.subSequence(start, position).toString()));
+		}
 	}
 }
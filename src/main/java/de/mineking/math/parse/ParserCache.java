@@ -0,0 +1,97 @@
+package de.mineking.math.parse;
+
+import de.mineking.math.MathFunction;
+import de.mineking.math.cache.BoundedCache;
+import de.mineking.math.cache.CacheStatistics;
+import org.jetbrains.annotations.NotNull;
+
+public class ParserCache {
+	private final Parser parser;
+	private final BoundedCache<String, MathFunction> cache;
+
+	private volatile boolean normalizeWhitespace = true;
+	private volatile boolean simplify = false;
+
+	public ParserCache(@NotNull Parser parser, int maximumSize, long maximumWeight) {
+		this.parser = parser;
+		this.cache = new BoundedCache<>(maximumSize, maximumWeight, (input, function) -> input.length() + function.getSize());
+	}
+
+	public ParserCache(@NotNull Parser parser, int maximumSize) {
+		this(parser, maximumSize, Long.MAX_VALUE);
+	}
+
+	@NotNull
+	public Parser getParser() {
+		return parser;
+	}
+
+	public boolean isNormalizeWhitespace() {
+		return normalizeWhitespace;
+	}
+
+	public boolean isSimplify() {
+		return simplify;
+	}
+
+	@NotNull
+	public ParserCache normalizeWhitespace(boolean normalizeWhitespace) {
+		this.normalizeWhitespace = normalizeWhitespace;
+		cache.clear();
+		return this;
+	}
+
+	@NotNull
+	public ParserCache simplify(boolean simplify) {
+		this.simplify = simplify;
+		cache.clear();
+		return this;
+	}
+
+	@NotNull
+	public MathFunction parse(@NotNull CharSequence input) throws ParseException {
+		var key = normalizeWhitespace ? normalize(input) : input.toString();
+
+		//Failed inputs are not cached, the exception is thrown again on every call
+		return cache.computeIfAbsent(key, k -> {
+			var function = parser.parse(k);
+			return simplify ? MathFunction.create(function.simplify()) : function;
+		});
+	}
+
+	@NotNull
+	public CacheStatistics getStatistics() {
+		return cache.getStatistics();
+	}
+
+	public void clear() {
+		cache.clear();
+	}
+
+	//Whitespace is only kept where it separates two tokens that would otherwise merge, like "sin x" or "2 3"
+	@NotNull
+	static String normalize(@NotNull CharSequence input) {
+		var result = new StringBuilder(input.length());
+		var pending = false;
+
+		for (int i = 0; i < input.length(); i++) {
+			var c = input.charAt(i);
+
+			if (Character.isWhitespace(c)) {
+				pending = true;
+				continue;
+			}
+
+			if (pending && !result.isEmpty() && isWord(result.charAt(result.length() - 1)) && isWord(c)) result.append(' ');
+
+			pending = false;
+			result.append(c);
+		}
+
+		return result.toString();
+	}
+
+	private static boolean isWord(char c) {
+		return c == '_' || c == '.' || Character.isLetterOrDigit(c);
+	}
+}
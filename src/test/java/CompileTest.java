@@ -0,0 +1,139 @@
+import de.mineking.math.MathFunction;
+import de.mineking.math.compile.BatchEvaluator;
+import de.mineking.math.compile.BytecodeCompiler;
+import de.mineking.math.compile.VariableSlots;
+import de.mineking.math.function.UnaryFunction;
+import de.mineking.math.function.DefaultFunctions;
+import de.mineking.math.node.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.DoubleBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompileTest {
+	@Test
+	public void unary() {
+		var function = MathFunction.create(Sum.create(
+				Exponent.create(Variable.defaultVariable, Constant.TWO),
+				Fraction.create(Constant.ONE, Variable.defaultVariable),
+				UnaryFunctionCall.create(DefaultFunctions.cos, Variable.defaultVariable)
+		)).compile();
+
+		for (var x = 0.5; x < 5; x += 0.5) assertEquals(x * x + 1 / x + Math.cos(x), function.applyAsDouble(x), 1e-12);
+	}
+
+	@Test
+	public void multipleVariables() {
+		var function = Product.create(
+				Variable.create("a"),
+				BinaryFunctionCall.create(DefaultFunctions.log, Constant.TWO, Variable.create("b"))
+		).compile(List.of("a", "b"));
+
+		assertEquals(3 * 5.0, function.evaluate(3, 32), 1e-12);
+	}
+
+	@Test
+	public void unknownVariable() {
+		assertThrows(UnsupportedOperationException.class, () -> Variable.create("y").compile(Node.defaultVariable));
+	}
+
+	@Test
+	public void interpreter() {
+		var node = Sum.create(
+				Product.create(Variable.create("a"), Exponent.create(Variable.create("b"), Constant.TWO)),
+				UnaryFunctionCall.create(DefaultFunctions.sin, Variable.create("a")),
+				Fraction.create(Constant.ONE, Variable.create("c"))
+		);
+
+		var slots = VariableSlots.of("a", "b", "c").set(2, 4, 0.5);
+		assertEquals(2 * 16 + Math.sin(2) + 2, node.evalDouble(slots), 1e-12);
+
+		var copy = slots.copy().set("b", 1);
+		assertEquals(2 + Math.sin(2) + 2, node.evalDouble(copy), 1e-12);
+		assertEquals(2 * 16 + Math.sin(2) + 2, node.evalDouble(slots), 1e-12);
+
+		assertTrue(Double.isNaN(node.evalDouble(VariableSlots.of("a", "b"))));
+		assertTrue(Double.isNaN(ImaginaryUnit.I.evalDouble(slots)));
+
+		//Bound trees read their resolved slots for the layout they were bound to and look up names for any other layout
+		var bound = node.bind(slots);
+		var reordered = VariableSlots.of("c", "b", "a").set(0.5, 4, 2);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(node.evalDouble(slots), bound.evalDouble(copy.set("b", 4)), 0);
+			assertEquals(node.evalDouble(slots), bound.evalDouble(reordered), 0);
+			assertEquals(node.evalDouble(slots), node.evalDouble(reordered), 0);
+		}
+
+		assertEquals(node, bound);
+	}
+
+	@Test
+	public void bytecode() {
+		var square = UnaryFunction.create("square", x -> x * x, null, null, null);
+		var node = Sum.create(
+				Product.create(Constant.create(3), Exponent.create(Variable.create("a"), Constant.TWO)),
+				Fraction.create(UnaryFunctionCall.create(DefaultFunctions.sin, Variable.create("b")), Variable.create("a")),
+				UnaryFunctionCall.create(square, Variable.create("b")),
+				BinaryFunctionCall.create(DefaultFunctions.root, Constant.create(3), Variable.create("a")),
+				Exponent.create(Variable.create("b"), Constant.create(1.5))
+		);
+
+		var variables = List.of("a", "b");
+		var compiled = BytecodeCompiler.compile(node, variables);
+		var closure = node.compile(variables);
+
+		for (var a = 0.5; a < 4; a += 0.5) {
+			for (var b = 0.5; b < 4; b += 0.5) assertEquals(closure.evaluate(a, b), compiled.evaluate(a, b), 1e-12);
+		}
+	}
+
+	@Test
+	public void batch() {
+		var function = MathFunction.create(Sum.create(
+				Exponent.create(Variable.defaultVariable, Constant.TWO),
+				Fraction.create(Constant.ONE, Sum.create(Variable.defaultVariable, Constant.ONE)),
+				Exponent.create(Variable.defaultVariable, Constant.create(0.5)),
+				UnaryFunctionCall.create(DefaultFunctions.sin, Variable.defaultVariable)
+		));
+		var scalar = function.compile();
+
+		var values = new double[2000];
+		var expected = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i * 0.01;
+			expected[i] = scalar.applyAsDouble(values[i]);
+		}
+
+		var result = new double[values.length];
+		function.evaluate(values, result);
+		assertArrayEquals(expected, result, 1e-12);
+
+		var buffer = DoubleBuffer.allocate(values.length);
+		function.evaluate(DoubleBuffer.wrap(values), buffer);
+		assertArrayEquals(expected, buffer.array(), 1e-12);
+	}
+
+	@Test
+	public void sharedSubexpressions() {
+		//The derivative of (x² + 1)^sin(x) repeats the base, the exponent and the power itself
+		var base = Sum.create(Exponent.create(Variable.defaultVariable, Constant.TWO), Constant.ONE);
+		var node = Exponent.create(base, UnaryFunctionCall.create(DefaultFunctions.sin, Variable.defaultVariable)).getDerivative(Node.defaultVariable);
+
+		var evaluator = BatchEvaluator.compile(node, List.of(Node.defaultVariable));
+		assertTrue(evaluator.getProgram().getDeduplicated() > 0);
+		assertTrue(evaluator.getProgram().getSize() < node.getSize());
+
+		var values = new double[100];
+		var result = new double[values.length];
+		for (int i = 0; i < values.length; i++) values[i] = i * 0.05;
+
+		evaluator.evaluate(values, result);
+		for (int i = 0; i < values.length; i++) assertEquals(node.evalDouble(VariableSlots.of(Node.defaultVariable).set(0, values[i])), result[i], 1e-12);
+	}
+}
@@ -1,2 +1,109 @@
+import de.mineking.math.MathFunction;
+import de.mineking.math.compile.Dual;
+import de.mineking.math.compile.GradientEvaluator;
+import de.mineking.math.compile.VariableSlots;
+import de.mineking.math.function.DefaultFunctions;
+import de.mineking.math.metrics.CounterMetrics;
+import de.mineking.math.metrics.MetricsScope;
+import de.mineking.math.node.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public class DerivativeTest {
+	@Test
+	public void forwardMode() {
+		var function = MathFunction.create(Sum.create(
+				Product.create(Exponent.create(Variable.defaultVariable, Constant.create(3)), UnaryFunctionCall.create(DefaultFunctions.sin, Variable.defaultVariable)),
+				Fraction.create(Constant.ONE, Variable.defaultVariable),
+				BinaryFunctionCall.create(DefaultFunctions.log, Constant.TWO, Variable.defaultVariable),
+				Exponent.create(Constant.E, Product.create(Constant.TWO, Variable.defaultVariable))
+		));
+
+		for (var x = 0.5; x < 3; x += 0.25) {
+			var expected = 3 * x * x * Math.sin(x) + x * x * x * Math.cos(x) - 1 / (x * x) + 1 / (x * Math.log(2)) + 2 * Math.exp(2 * x);
+			assertEquals(expected, function.getSlope(x), 1e-9 * Math.abs(expected));
+		}
+
+		var result = function.evaluateDual(1, new Dual());
+		assertEquals(Math.sin(1) + 1 + Math.E * Math.E, result.getValue(), 1e-12);
+	}
+
+	@Test
+	public void partialDerivative() {
+		var node = Product.create(Variable.create("a"), Exponent.create(Variable.create("b"), Constant.TWO));
+		var slots = VariableSlots.of("a", "b").set(3.0, 2.0);
+		var result = new Dual();
+
+		node.evalDual(slots, 0, result);
+		assertEquals(4, result.getSlope(), 1e-12);
+
+		node.evalDual(slots, 1, result);
+		assertEquals(12, result.getSlope(), 1e-12);
+		assertEquals(12, result.getValue(), 1e-12);
+	}
+
+	@Test
+	public void reverseMode() {
+		var node = Sum.create(
+				Product.create(Variable.create("a"), Exponent.create(Variable.create("b"), Constant.TWO)),
+				UnaryFunctionCall.create(DefaultFunctions.sin, Product.create(Variable.create("a"), Variable.create("c"))),
+				Fraction.create(Variable.create("b"), Variable.create("c"))
+		);
+
+		var gradient = GradientEvaluator.compile(node, List.of("a", "b", "c"));
+		var out = new double[3];
+
+		for (var x = 0.5; x < 3; x += 0.5) {
+			double a = x, b = x + 1, c = 2 * x;
+
+			assertEquals(a * b * b + Math.sin(a * c) + b / c, gradient.gradient(new double[] { a, b, c }, out), 1e-12);
+			assertEquals(b * b + c * Math.cos(a * c), out[0], 1e-9);
+			assertEquals(2 * a * b + 1 / c, out[1], 1e-9);
+			assertEquals(a * Math.cos(a * c) - b / (c * c), out[2], 1e-9);
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> gradient.gradient(new double[2], out));
+	}
+
+	@Test
+	public void cache() throws Exception {
+		var function = MathFunction.create(Product.create(Exponent.create(Variable.defaultVariable, Constant.create(4)), UnaryFunctionCall.create(DefaultFunctions.sin, Variable.defaultVariable)));
+
+		var third = function.getDerivative(Node.defaultVariable, 3);
+		assertSame(third, function.getDerivative(Node.defaultVariable, 3));
+		assertSame(function.getDerivative(Node.defaultVariable), function.getDerivative(Node.defaultVariable, 1));
+
+		for (var x = 0.5; x < 2; x += 0.5) {
+			var expected = 24 * x * Math.sin(x) + 36 * x * x * Math.cos(x) - 12 * x * x * x * Math.sin(x) - x * x * x * x * Math.cos(x);
+			assertEquals(expected, third.evalDouble(VariableSlots.of(Node.defaultVariable).set(0, x)), 1e-9);
+		}
+
+		var shared = MathFunction.create(Exponent.create(Variable.defaultVariable, Constant.create(5)));
+		var executor = Executors.newFixedThreadPool(4);
+
+		try {
+			var results = executor.invokeAll(Collections.nCopies(8, () -> shared.getDerivative(Node.defaultVariable, 2)));
+			for (var result : results) assertSame(results.get(0).get(), result.get());
+		} finally {
+			executor.shutdown();
+		}
+
+		//Higher orders than the cache holds are still computed once per order
+		var metrics = new CounterMetrics();
+		var high = MathFunction.create(Exponent.create(Variable.defaultVariable, Constant.create(12)));
+
+		var ninth = MetricsScope.run(metrics, () -> high.getDerivative(Node.defaultVariable, 9));
+		assertEquals(Long.valueOf(9), metrics.snapshot().get("derivative.count"));
+		assertEquals(12.0 * 11 * 10 * 9 * 8 * 7 * 6 * 5 * 4 * 8, ninth.evalDouble(VariableSlots.of(Node.defaultVariable).set(0, 2)), 1e-3);
+
+		assertSame(ninth, MetricsScope.run(metrics, () -> high.getDerivative(Node.defaultVariable, 9)));
+		assertEquals(Long.valueOf(9), metrics.snapshot().get("derivative.count"));
+	}
 }
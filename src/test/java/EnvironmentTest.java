@@ -0,0 +1,128 @@
+import de.mineking.math.FactorCondition;
+import de.mineking.math.MathEnvironment;
+import de.mineking.math.PersistentMap;
+import de.mineking.math.cache.SimplificationCache;
+import de.mineking.math.metrics.CounterMetrics;
+import de.mineking.math.metrics.ParseEvent;
+import de.mineking.math.metrics.SimplifyEvent;
+import de.mineking.math.node.Constant;
+import de.mineking.math.node.Product;
+import de.mineking.math.node.Sum;
+import de.mineking.math.node.Variable;
+import de.mineking.math.parse.Parser;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnvironmentTest {
+	@Test
+	public void derivation() {
+		var base = MathEnvironment.DEFAULT.variable("x", Constant.create(2));
+		var derived = base.variable("y", Constant.create(3)).evaluate().factor(FactorCondition.CONSTANT_FRACTION);
+
+		assertEquals(Map.of("x", Constant.create(2)), base.getVariables());
+		assertEquals(Map.of("x", Constant.create(2), "y", Constant.create(3)), derived.getVariables());
+		assertFalse(base.isEvaluate());
+		assertTrue(base.getFactorConditions().isEmpty());
+		assertTrue(MathEnvironment.DEFAULT.getVariables().isEmpty());
+
+		assertEquals(Map.of("y", Constant.create(3)), derived.withoutVariable("x").getVariables());
+		assertThrows(UnsupportedOperationException.class, () -> derived.getVariables().put("z", Constant.ONE));
+
+		//getFactorConditions hands out a copy
+		EnumSet<FactorCondition> conditions = derived.getFactorConditions();
+		conditions.clear();
+		assertTrue(derived.hasFactorCondition(FactorCondition.CONSTANT_FRACTION));
+	}
+
+	@Test
+	public void persistentMap() {
+		var expected = new HashMap<String, Integer>();
+		PersistentMap<String, Integer> map = PersistentMap.empty();
+
+		for (int i = 0; i < 1000; i++) {
+			var key = "k" + (i * 7919 % 1000);
+			map = map.with(key, i);
+			expected.put(key, i);
+		}
+
+		var snapshot = map;
+		for (int i = 0; i < 1000; i += 3) {
+			map = map.without("k" + i);
+			expected.remove("k" + i);
+		}
+
+		assertEquals(expected, map);
+		assertEquals(expected.hashCode(), map.hashCode());
+		assertEquals(1000, snapshot.size());
+		assertEquals(Integer.valueOf(0), snapshot.get("k0"));
+	}
+
+	@Test
+	public void metrics() throws Exception {
+		var metrics = new CounterMetrics();
+		var environment = MathEnvironment.DEFAULT.metrics(metrics).cache(new SimplificationCache(100));
+
+		var node = Sum.create(Product.create(Constant.TWO, Variable.defaultVariable), Product.create(Constant.create(3), Variable.defaultVariable));
+		assertEquals(Product.create(Constant.create(5), Variable.defaultVariable), node.apply(environment));
+		node.apply(environment);
+
+		var snapshot = metrics.snapshot();
+		assertTrue(snapshot.get("apply.count") > 0);
+		assertTrue(snapshot.get("apply.maxDepth") > 1);
+		assertTrue(snapshot.get("node.Product") > 0);
+		assertTrue(snapshot.get("cache.hits") > 0);
+
+		//Environments without metrics do not report anything
+		var count = metrics.snapshot().get("apply.count");
+		node.apply(MathEnvironment.DEFAULT);
+		assertEquals(count, metrics.snapshot().get("apply.count"));
+
+		var name = metrics.register("de.mineking.math:type=Test");
+		try {
+			assertEquals(count, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "apply.count"));
+		} finally {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		}
+	}
+
+	@Test
+	public void flightRecorder() throws Exception {
+		var node = Sum.create(Product.create(Constant.TWO, Variable.defaultVariable), Product.create(Constant.create(3), Variable.defaultVariable));
+		var file = Files.createTempFile("math", ".jfr");
+
+		try (var recording = new Recording()) {
+			recording.enable(SimplifyEvent.class).withThreshold(Duration.ZERO);
+			recording.enable(ParseEvent.class).withThreshold(Duration.ZERO);
+			recording.start();
+
+			node.simplify();
+			new Parser().parse("2x + 3x");
+
+			recording.stop();
+			recording.dump(file);
+		}
+
+		try {
+			var events = RecordingFile.readAllEvents(file);
+
+			var simplify = events.stream().filter(e -> e.getString("operation").equals("simplify")).findFirst().orElseThrow();
+			assertEquals(node.getSize(), simplify.getInt("inputSize"));
+			assertEquals(1, simplify.getInt("depth"));
+
+			assertTrue(events.stream().anyMatch(e -> e.getString("operation").equals("Sum.apply") && e.getInt("depth") > 1));
+			assertTrue(events.stream().anyMatch(e -> e.getString("operation").equals("parse") && e.getInt("inputSize") == 7));
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
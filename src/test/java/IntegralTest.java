@@ -1,2 +1,57 @@
+import de.mineking.math.MathFunction;
+import de.mineking.math.function.DefaultFunctions;
+import de.mineking.math.node.*;
+import de.mineking.math.numeric.Integrator;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 public class IntegralTest {
+	@Test
+	public void numeric() {
+		//No symbolic integral exists for 1 / (1 + x²)
+		var function = MathFunction.create(Fraction.create(Constant.ONE, Sum.create(Constant.ONE, Exponent.create(Variable.defaultVariable, Constant.TWO))));
+
+		var result = function.integrate(0, 1);
+		assertEquals(Math.PI / 4, result.value(), 1e-12);
+		assertTrue(result.error() < 1e-10);
+
+		assertEquals(Math.PI / 4, function.getArea(0, 1), 1e-12);
+		assertEquals(-Math.PI / 4, function.getArea(1, 0), 1e-12);
+		assertEquals(Math.PI / 4, function.getAverage(0, 1), 1e-12);
+	}
+
+	@Test
+	public void adaptive() {
+		var function = MathFunction.create(UnaryFunctionCall.create(DefaultFunctions.sin, Fraction.create(Constant.ONE, Variable.defaultVariable)));
+		var integrator = Integrator.DEFAULT.tolerance(1e-9, 0);
+
+		var sequential = function.integrate(integrator, 0.05, 2);
+		var parallel = function.integrate(integrator.parallel(ForkJoinPool.commonPool()), 0.05, 2);
+
+		assertTrue(sequential.evaluations() > 15);
+		assertEquals(sequential.value(), parallel.value(), 1e-15);
+		assertEquals(sequential.evaluations(), parallel.evaluations());
+
+		//Compare with a fine midpoint rule
+		var reference = 0.0;
+		var n = 2_000_000;
+		var h = (2 - 0.05) / n;
+		for (int i = 0; i < n; i++) reference += Math.sin(1 / (0.05 + (i + 0.5) * h)) * h;
+
+		assertEquals(reference, sequential.value(), 1e-8);
+		assertFalse(sequential.limited());
+
+		var limited = function.integrate(integrator.maxEvaluations(100), 0.05, 2);
+		assertTrue(limited.limited());
+		assertTrue(limited.evaluations() <= 100);
+
+		var limitedParallel = function.integrate(integrator.maxEvaluations(100).parallel(), 0.05, 2);
+		assertTrue(limitedParallel.limited());
+		assertTrue(limitedParallel.evaluations() <= 100);
+	}
 }
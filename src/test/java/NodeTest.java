@@ -1,22 +1,37 @@
 import de.mineking.math.MathEnvironment;
+import de.mineking.math.Rational;
+import de.mineking.math.SimplificationBudget;
+import de.mineking.math.cache.SimplificationCache;
+import de.mineking.math.compile.VariableSlots;
 import de.mineking.math.function.DefaultFunctions;
 import de.mineking.math.node.*;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class NodeTest {
-	static {
-		MathEnvironment.DEFAULT.factorOut();
-	}
-
 	@Test
 	public void sumCombine() {
+		var environment = MathEnvironment.DEFAULT.factorOut();
+
 		assertEquals(
 				Product.create(
 						Constant.create(4),
 						Variable.defaultVariable
-				),
+				).apply(environment),
 				Sum.create(
 						Variable.defaultVariable,
 						Variable.defaultVariable,
@@ -24,7 +39,7 @@ public class NodeTest {
 								Constant.create(2),
 								Variable.defaultVariable
 						)
-				)
+				).apply(environment)
 		);
 
 		assertEquals(
@@ -34,7 +49,7 @@ public class NodeTest {
 								Constant.ONE,
 								Variable.defaultVariable
 						)
-				),
+				).apply(environment),
 				Sum.create(
 						Variable.defaultVariable,
 						Product.create(
@@ -42,7 +57,7 @@ public class NodeTest {
 								Variable.defaultVariable
 						).negate(),
 						Constant.TWO
-				)
+				).apply(environment)
 		);
 	}
 
@@ -80,4 +95,255 @@ public class NodeTest {
 				)
 		);
 	}
+
+	@Test
+	public void fractionKeepsSumFactor() {
+		var x = Variable.defaultVariable;
+		var sum = Sum.create(
+				Product.create(Constant.create(4), UnaryFunctionCall.create(DefaultFunctions.sin, x)),
+				Product.create(x, UnaryFunctionCall.create(DefaultFunctions.cos, x))
+		);
+
+		var node = Fraction.create(Product.create(Constant.create(3), Exponent.create(x, Constant.create(3)), sum), x).simplify();
+
+		for (var value = 0.5; value < 3; value += 0.5) {
+			var slots = VariableSlots.of(Node.defaultVariable).set(0, value);
+			assertEquals(3 * value * value * (4 * Math.sin(value) + value * Math.cos(value)), node.evalDouble(slots), 1e-9);
+		}
+	}
+
+	@Test
+	public void polynomialCombine() {
+		var x = Variable.defaultVariable;
+		var y = Variable.create("y");
+
+		var terms = new ArrayList<Node>();
+		for (int i = 0; i < 200; i++) terms.add(Product.create(Constant.create(i % 2 == 0 ? 1 : -1), Exponent.create(x, Constant.create(i % 3 + 2)), y));
+
+		var sum = Sum.create(terms);
+		var simplified = sum.simplify();
+
+		var slots = VariableSlots.of("x", "y").set(1.1, 0.7);
+		assertEquals(sum.evalDouble(slots), simplified.evalDouble(slots), 1e-9);
+		assertTrue(simplified.getSize() < 100);
+
+		var square = SparsePolynomial.of(Exponent.create(Sum.create(x, y), Constant.TWO));
+		assertEquals(3, square.size());
+		assertEquals(Sum.create(Exponent.create(x, Constant.TWO), Product.create(Constant.TWO, x, y), Exponent.create(y, Constant.TWO)), square.toNode());
+
+		//(x + 1)(x - 1) + 1 = x^2 once the product is expanded
+		var expanded = Sum.create(Product.create(Sum.create(x, Constant.ONE), Sum.create(x, Constant.NEGATIVE)), Constant.ONE).simplify();
+		assertEquals(Exponent.create(x, Constant.TWO), expanded);
+
+		var third = Fraction.create(Constant.ONE, Constant.create(3));
+		var exact = SparsePolynomial.of(Sum.create(Product.create(third, x), Product.create(Constant.create(2), third, x)).simplify());
+		assertEquals(Rational.ONE, exact.getRationalCoefficient(0));
+	}
+
+	@Test
+	public void exactConstants() {
+		var third = Fraction.create(Constant.ONE, Constant.create(3));
+		var sixth = Fraction.create(Constant.ONE, Constant.create(6));
+
+		assertEquals(Fraction.create(Constant.ONE, Constant.TWO), Sum.create(third, sixth).simplify());
+		assertEquals(Rational.of(3, 10), ((Constant) Sum.create(Constant.create(0.1), Constant.create(0.2))).getRational());
+		assertNull(Constant.create(Math.sqrt(2)).getRational());
+
+		var big = Rational.of(Long.MAX_VALUE, 3);
+		assertEquals(Rational.of(Long.MAX_VALUE, 3).multiply(Rational.of(3)), Rational.of(Long.MAX_VALUE));
+		assertEquals(new BigInteger("85070591730234615847396907784232501249"), big.multiply(big).getNumerator());
+
+		var evaluated = Sum.create(Constant.TWO, Product.create(Constant.TWO, Variable.defaultVariable)).apply(MathEnvironment.DEFAULT.variable(Node.defaultVariable, Fraction.create(Constant.ONE, Constant.create(3))).evaluate());
+		assertEquals(Rational.of(8, 3), ((Constant) evaluated).getRational());
+	}
+
+	@Test
+	public void rationalDoubleValue() {
+		//Just above the midpoint between 2^53 and 2^53 + 2, rounding to 16 decimal digits first would land on the midpoint and round down
+		var shift = BigInteger.ONE.shiftLeft(70);
+		var above = Rational.of(BigInteger.ONE.shiftLeft(53).add(BigInteger.ONE).multiply(shift).add(BigInteger.ONE), shift);
+		assertEquals(9007199254740994.0, above.doubleValue());
+		assertEquals(-9007199254740994.0, above.negate().doubleValue());
+
+		var midpoint = Rational.of(BigInteger.ONE.shiftLeft(53).add(BigInteger.ONE), BigInteger.ONE);
+		assertEquals(9007199254740992.0, midpoint.doubleValue());
+
+		//Subnormal results are rounded once at the last subnormal bit
+		assertEquals(Double.MIN_VALUE, Rational.of(BigInteger.ONE, BigInteger.valueOf(3).shiftLeft(1073)).doubleValue());
+		assertEquals(0.0, Rational.of(BigInteger.ONE, BigInteger.ONE.shiftLeft(1075)).doubleValue());
+		assertEquals(Double.POSITIVE_INFINITY, Rational.of(BigInteger.ONE.shiftLeft(1024), BigInteger.ONE).doubleValue());
+
+		for (long i = 1; i < 1000; i++) {
+			var numerator = (1L << 60) + 7919 * i;
+			var denominator = (1L << 59) + 104729 * i;
+			assertEquals(new BigDecimal(numerator).divide(new BigDecimal(denominator), new MathContext(100)).doubleValue(), Rational.of(numerator, denominator).doubleValue());
+		}
+	}
+
+	@Test
+	public void canonicalEquality() {
+		var a = Sum.create(Variable.defaultVariable, UnaryFunctionCall.create(DefaultFunctions.sin, Variable.defaultVariable), Variable.create("y"));
+		var b = Sum.create(Variable.create("y"), Variable.defaultVariable, UnaryFunctionCall.create(DefaultFunctions.sin, Variable.defaultVariable));
+
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+
+		var c = Sum.create(Variable.defaultVariable, Variable.defaultVariable);
+		var d = Product.create(Constant.TWO, Variable.defaultVariable);
+
+		assertEquals(c, d);
+		assertEquals(d, c);
+		assertEquals(c.hashCode(), d.hashCode());
+
+		var e = Sum.create(Constant.TWO, Constant.TWO);
+		assertEquals(Constant.create(4), e);
+		assertEquals(Constant.create(4).hashCode(), e.hashCode());
+
+		//Node types the canonical order does not know, with colliding hashes
+		var f = new Opaque("f");
+		var g = new Opaque("g");
+
+		assertEquals(Sum.create(f, g, Variable.defaultVariable), Sum.create(g, Variable.defaultVariable, f));
+		assertNotEquals(Sum.create(f, f), Sum.create(f, g));
+	}
+
+	private record Opaque(String name) implements Node {
+		@Override
+		public Node apply(MathEnvironment environment) {
+			return this;
+		}
+
+		@Override
+		public int hashCode() {
+			return 0;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	@Test
+	public void simplificationCache() {
+		var cache = new SimplificationCache(100);
+		var environment = new MathEnvironment().cache(cache);
+
+		var node = Sum.create(
+				Product.create(Variable.defaultVariable, Variable.defaultVariable),
+				Product.create(Constant.TWO, Variable.defaultVariable, Variable.defaultVariable)
+		);
+
+		var first = node.apply(environment);
+		var misses = cache.getStatistics().misses();
+
+		assertSame(first, node.apply(environment));
+		assertEquals(misses, cache.getStatistics().misses());
+		assertTrue(cache.getStatistics().hits() > 0);
+
+		node.apply(environment.clone().evaluate());
+		assertTrue(cache.getStatistics().misses() > misses);
+
+		//Factoring x y + x z builds x (y + z) from fresh nodes, which still hits the entries of an identical subtree
+		var x = Variable.defaultVariable;
+		var y = Variable.create("y");
+		var z = Variable.create("z");
+
+		Product.create(x, Sum.create(y, z)).apply(environment);
+		Product.create(x, Sum.create(z, y)).apply(environment);
+
+		var hits = cache.getStatistics().hits();
+		var factored = Sum.create(Product.create(x, y), Product.create(x, z)).apply(environment);
+
+		assertEquals(Product.create(x, Sum.create(y, z)), factored);
+		assertTrue(cache.getStatistics().hits() > hits);
+	}
+
+	@Test
+	public void interning() {
+		assertNotSame(Variable.create("y"), Variable.create("y"));
+
+		NodeInterner.setEnabled(true);
+		try {
+			var before = NodeInterner.getStatistics();
+
+			var a = Sum.create(Variable.create("y"), UnaryFunctionCall.create(DefaultFunctions.sin, Variable.create("z")));
+			var b = Sum.create(Variable.create("y"), UnaryFunctionCall.create(DefaultFunctions.sin, Variable.create("z")));
+			assertSame(a, b);
+
+			var after = NodeInterner.getStatistics();
+			assertEquals(4, after.misses() - before.misses());
+			assertEquals(4, after.hits() - before.hits());
+		} finally {
+			NodeInterner.setEnabled(false);
+			NodeInterner.clear();
+		}
+	}
+
+	@Test
+	public void budget() {
+		var terms = new ArrayList<Node>();
+		var names = new ArrayList<String>();
+
+		for (int i = 0; i < 100; i++) {
+			terms.add(Product.create(Variable.create("a" + i % 5), Variable.create("b" + i / 5 % 5), Variable.create("c" + i)));
+			names.add("c" + i);
+		}
+
+		for (int i = 0; i < 5; i++) {
+			names.add("a" + i);
+			names.add("b" + i);
+		}
+
+		var node = Sum.create(terms);
+		var slots = new VariableSlots(names);
+		for (int i = 0; i < names.size(); i++) slots.set(i, 1 + i * 0.01);
+
+		var budget = SimplificationBudget.steps(50);
+		var partial = node.apply(MathEnvironment.DEFAULT.budget(budget).cache(new SimplificationCache(100)));
+
+		assertTrue(budget.isExhausted());
+		assertEquals(50, budget.getSteps());
+		assertEquals(node.evalDouble(slots), partial.evalDouble(slots), 1e-9);
+
+		//Interruption stops simplification as well and leaves the flag set
+		Thread.currentThread().interrupt();
+		try {
+			var interrupted = SimplificationBudget.unlimited();
+			var result = node.apply(MathEnvironment.DEFAULT.budget(interrupted));
+
+			assertTrue(interrupted.isExhausted());
+			assertTrue(Thread.currentThread().isInterrupted());
+			assertEquals(node.evalDouble(slots), result.evalDouble(slots), 1e-9);
+		} finally {
+			Thread.interrupted();
+		}
+
+		var complete = SimplificationBudget.steps(100_000);
+		assertEquals(node.simplify(), node.apply(MathEnvironment.DEFAULT.budget(complete)));
+		assertFalse(complete.isExhausted());
+	}
+
+	@Test
+	public void budgetBoundsCanonicalWork() {
+		//Grouping factors by base compares the sums through their canonical forms, which has to stay within the budget as well
+		Sum.create(Variable.create("p"), Variable.create("q")).simplify();
+
+		for (var budget : List.of(SimplificationBudget.steps(5), SimplificationBudget.timeout(Duration.ofMillis(1)))) {
+			var node = Product.create(largeSum("a"), largeSum("b"), largeSum("c"));
+
+			var start = System.nanoTime();
+			node.apply(MathEnvironment.DEFAULT.budget(budget));
+
+			assertTrue(budget.isExhausted());
+			assertTrue(System.nanoTime() - start < 100_000_000, "Simplification took " + (System.nanoTime() - start) / 1_000_000 + "ms");
+		}
+	}
+
+	private static Node largeSum(String prefix) {
+		var terms = new ArrayList<Node>();
+		for (int i = 0; i < 60; i++) terms.add(Product.create(Constant.create(i + 1), Exponent.create(Variable.create(prefix + i % 7), Constant.create(i % 4 + 1)), Variable.defaultVariable));
+
+		return Sum.create(terms);
+	}
 }
@@ -1,2 +1,106 @@
+import de.mineking.math.function.DefaultFunctions;
+import de.mineking.math.node.*;
+import de.mineking.math.parse.BulkParser;
+import de.mineking.math.parse.ParseException;
+import de.mineking.math.parse.Parser;
+import de.mineking.math.parse.ParserCache;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public class ParserTest {
+	private final Parser parser = new Parser();
+
+	@Test
+	public void precedence() {
+		assertEquals(
+				Sum.create(
+						Product.create(Constant.TWO, Exponent.create(Variable.defaultVariable, Constant.TWO)),
+						Product.create(Constant.create(3), Variable.defaultVariable).negate(),
+						Constant.ONE
+				),
+				parser.parse("2x^2 - 3 * x + 1").getNode()
+		);
+
+		assertEquals(-16, parser.parse("-2^2^2").compile().applyAsDouble(0));
+		assertEquals(0.75, parser.parse("3 / 2 / 2").compile().applyAsDouble(0));
+		assertEquals(11.25, parser.parse("(x + .5)(x - 1.5)").compile().applyAsDouble(4));
+	}
+
+	@Test
+	public void functions() {
+		assertEquals(
+				Product.create(
+						UnaryFunctionCall.create(DefaultFunctions.sin, Variable.defaultVariable),
+						BinaryFunctionCall.create(DefaultFunctions.log, Constant.TWO, Variable.create("y"))
+				),
+				parser.parse("sin(x) log(2, y)").getNode()
+		);
+
+		assertEquals(3, parser.parse("√x").compile().applyAsDouble(9), 1e-12);
+		assertEquals(2, parser.parse("√(3, x)").compile().applyAsDouble(8), 1e-12);
+		assertEquals(Math.PI, parser.parse("2 pi").compile().applyAsDouble(0) / 2, 1e-12);
+	}
+
+	@Test
+	public void identifiers() {
+		var x = Variable.defaultVariable;
+		var y = Variable.create("y");
+
+		assertEquals(Product.create(Constant.TWO, Constant.PI, x), parser.parse("2pix").getNode());
+		assertEquals(UnaryFunctionCall.create(DefaultFunctions.sin, x), parser.parse("sinx").getNode());
+		assertEquals(Product.create(x, y), parser.parse("xy").getNode());
+		assertEquals(Sum.create(Variable.create("x1"), Variable.create("x_max")), parser.parse("x1 + x_max").getNode());
+
+		assertEquals(1e5, parser.parse("1e5").compile().applyAsDouble(0));
+		assertEquals(2.5e-3, parser.parse("2.5E-3").compile().applyAsDouble(0));
+		assertEquals(1.25e300, parser.parse("1.25e+300").compile().applyAsDouble(0));
+		assertEquals(2 * Math.E, parser.parse("2e").compile().applyAsDouble(0), 1e-12);
+		assertEquals(2 * Math.E - 1, parser.parse("2e - 1").compile().applyAsDouble(0), 1e-12);
+	}
+
+	@Test
+	public void errors() {
+		assertEquals(4, assertThrows(ParseException.class, () -> parser.parse("2 + * x")).getPosition());
+		assertEquals(6, assertThrows(ParseException.class, () -> parser.parse("(x + 1")).getPosition());
+		assertEquals(0, assertThrows(ParseException.class, () -> parser.parse("log(x)")).getPosition());
+	}
+
+	@Test
+	public void cache() {
+		var cache = new ParserCache(parser, 10);
+
+		var first = cache.parse("2x + sin x");
+		assertSame(first, cache.parse("  2x+sin  x "));
+		assertNotSame(first, cache.parse("2x + sinx"));
+
+		assertEquals(1, cache.getStatistics().hits());
+		assertEquals(2, cache.getStatistics().misses());
+	}
+
+	@Test
+	public void bulk() throws IOException {
+		var input = new StringBuilder();
+		for (int i = 1; i <= 1000; i++) input.append(i == 500 ? "2 * (x" : i + "x").append("\n");
+
+		var results = new ArrayList<BulkParser.Result>();
+		new BulkParser(parser).chunkSize(16).parallelism(4).parse(new StringReader(input.toString()), results::add);
+
+		assertEquals(1000, results.size());
+		for (int i = 1; i <= 1000; i++) {
+			var result = results.get(i - 1);
+			assertEquals(i, result.line());
+
+			if (i == 500) assertFalse(result.isSuccess());
+			else assertEquals(i, result.function().compile().applyAsDouble(1), 1e-12);
+		}
+	}
 }
@@ -0,0 +1,97 @@
+import de.mineking.math.MathEnvironment;
+import de.mineking.math.MathFunction;
+import de.mineking.math.Rational;
+import de.mineking.math.function.DefaultFunctions;
+import de.mineking.math.node.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PolynomialTest {
+	@Test
+	public void multiply() {
+		var random = new Random(42);
+
+		var a = new double[150];
+		var b = new double[90];
+		for (int i = 0; i < a.length; i++) a[i] = random.nextInt(21) - 10;
+		for (int i = 0; i < b.length; i++) b[i] = random.nextInt(21) - 10;
+
+		var expected = new double[a.length + b.length - 1];
+		for (int i = 0; i < a.length; i++) {
+			for (int j = 0; j < b.length; j++) expected[i + j] += a[i] * b[j];
+		}
+
+		assertArrayEquals(expected, Polynomial.create(a).multiply(Polynomial.create(b)).getCoefficients(), 0);
+
+		//Unbalanced operands
+		var c = new double[1000];
+		for (int i = 0; i < c.length; i++) c[i] = random.nextInt(10) + 1;
+
+		expected = new double[c.length + b.length - 1];
+		for (int i = 0; i < c.length; i++) {
+			for (int j = 0; j < b.length; j++) expected[i + j] += c[i] * b[j];
+		}
+
+		assertArrayEquals(expected, Polynomial.create(b).multiply(Polynomial.create(c)).getCoefficients(), 0);
+	}
+
+	@Test
+	public void exactEquality() {
+		//Both round to the same double
+		var a = Polynomial.exact(Node.defaultVariable, Rational.ONE, Rational.of(1, 3));
+		var b = Polynomial.exact(Node.defaultVariable, Rational.ONE, Rational.of(1, 3).add(Rational.of(1, 1L << 60)));
+
+		assertArrayEquals(a.getCoefficients(), b.getCoefficients(), 0);
+		assertNotEquals(a, b);
+		assertEquals(a, Polynomial.exact(Node.defaultVariable, Rational.ONE, Rational.of(2, 6)));
+
+		//Doubles compare through the rational they represent, so equality stays transitive across both representations
+		var c = Polynomial.create(1, 1.0 / 3);
+		assertEquals(a, c);
+		assertEquals(c, a);
+		assertEquals(a.hashCode(), c.hashCode());
+		assertNotEquals(b, c);
+
+		var detected = Polynomial.of(Sum.create(Product.create(Fraction.create(Constant.ONE, Constant.create(3)), Variable.defaultVariable), Constant.ONE), Node.defaultVariable);
+		assertTrue(detected.isExact());
+		assertEquals(a, detected);
+	}
+
+	@Test
+	public void calculus() {
+		var polynomial = Polynomial.create(1, 2, 3); //3x^2 + 2x + 1
+
+		assertArrayEquals(new double[] { 2, 6 }, ((Polynomial) polynomial.getDerivative(Node.defaultVariable)).getCoefficients(), 0);
+		assertArrayEquals(new double[] { 0, 1, 1, 1 }, ((Polynomial) polynomial.getIntegral(Node.defaultVariable)).getCoefficients(), 0);
+		assertEquals(Constant.ZERO, polynomial.getDerivative("y"));
+
+		var exact = Polynomial.exact(Node.defaultVariable, Rational.ONE, Rational.of(1, 3));
+		assertEquals(Rational.of(1, 6), exact.integral().getExactCoefficients()[2]);
+		assertEquals(Rational.of(2), exact.evaluate(Rational.of(3)));
+	}
+
+	@Test
+	public void evaluation() {
+		var function = MathFunction.create(Sum.create(
+				Exponent.create(Sum.create(Variable.defaultVariable, Constant.ONE), Constant.create(3)),
+				Product.create(Constant.create(-2), Variable.defaultVariable)
+		));
+
+		var polynomial = function.getPolynomial();
+		assertNotNull(polynomial);
+		assertArrayEquals(new double[] { 1, 1, 3, 1 }, polynomial.getCoefficients(), 0);
+
+		var values = new double[1000];
+		var result = new double[1000];
+		for (int i = 0; i < values.length; i++) values[i] = i / 100.0 - 5;
+
+		function.evaluate(values, result);
+		for (int i = 0; i < values.length; i++) assertEquals(Math.pow(values[i] + 1, 3) - 2 * values[i], result[i], 1e-9);
+
+		assertNull(MathFunction.create(UnaryFunctionCall.create(DefaultFunctions.sin, Variable.defaultVariable)).getPolynomial());
+		assertEquals(Constant.create(5), Polynomial.create(1, 2).apply(MathEnvironment.DEFAULT.variable(Node.defaultVariable, Constant.TWO)));
+	}
+}
@@ -0,0 +1,55 @@
+import de.mineking.math.MathFunction;
+import de.mineking.math.compile.VariableSlots;
+import de.mineking.math.function.DefaultFunctions;
+import de.mineking.math.node.*;
+import de.mineking.math.numeric.RootFinder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RootFinderTest {
+	@Test
+	public void bracket() {
+		//x³ - 2x - 5
+		var function = MathFunction.create(Sum.create(
+				Exponent.create(Variable.defaultVariable, Constant.create(3)),
+				Product.create(Constant.create(-2), Variable.defaultVariable),
+				Constant.create(-5)
+		));
+
+		var result = RootFinder.DEFAULT.solve(function, 2, 3);
+		assertTrue(result.isConverged());
+		assertEquals(2.0945514815423265, result.root(), 1e-12);
+		assertTrue(result.newtonSteps() > 0);
+
+		assertEquals(RootFinder.Status.NO_BRACKET, RootFinder.DEFAULT.solve(function, 3, 4).status());
+		assertEquals(2.0945514815423265, RootFinder.DEFAULT.newton(function, 3).root(), 1e-12);
+	}
+
+	@Test
+	public void scan() {
+		var function = MathFunction.create(UnaryFunctionCall.create(DefaultFunctions.sin, Variable.defaultVariable));
+		var roots = RootFinder.DEFAULT.findRoots(function, -1, 10, 100);
+
+		assertEquals(4, roots.size());
+		for (int i = 0; i < 4; i++) assertEquals(i * Math.PI, roots.get(i).root(), 1e-12);
+	}
+
+	@Test
+	public void batch() {
+		//x² - a for many values of a
+		var node = Sum.create(Exponent.create(Variable.defaultVariable, Constant.TWO), Variable.create("a").negate());
+		var problems = new ArrayList<RootFinder.Problem>();
+
+		for (int a = 1; a <= 200; a++) problems.add(RootFinder.Problem.of(node, VariableSlots.of("x", "a").set(0.0, a), "x", 0, a + 1));
+
+		var results = RootFinder.DEFAULT.solveAll(problems);
+		for (int a = 1; a <= 200; a++) {
+			assertTrue(results.get(a - 1).isConverged());
+			assertEquals(Math.sqrt(a), results.get(a - 1).root(), 1e-10);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+import de.mineking.math.MathFunction;
+import de.mineking.math.function.DefaultFunctions;
+import de.mineking.math.node.*;
+import de.mineking.math.numeric.Sampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SamplerTest {
+	private final MathFunction function = MathFunction.create(Sum.create(
+			UnaryFunctionCall.create(DefaultFunctions.sin, Variable.defaultVariable),
+			Product.create(Constant.TWO, Variable.defaultVariable)
+	));
+
+	@Test
+	public void grid() {
+		var progress = new AtomicInteger();
+		var values = Sampler.DEFAULT.chunkSize(100).progress((completed, total) -> progress.incrementAndGet()).sample(function, new Sampler.Range(-5, 5, 1001), new double[1001]);
+
+		for (int i = 0; i < values.length; i++) {
+			var x = -5 + i / 100.0;
+			assertEquals(Math.sin(x) + 2 * x, values[i], 1e-12);
+		}
+
+		assertEquals(11, progress.get());
+		assertEquals(Math.sin(5) + 10, function.sample(-5, 5, 3)[2], 0);
+	}
+
+	@Test
+	public void grid2d() {
+		var function = MathFunction.create(Product.create(Variable.defaultVariable, Exponent.create(Variable.create("y"), Constant.TWO)));
+		var values = function.sample(0, 1, 11, -1, 1, 5);
+
+		assertEquals(55, values.length);
+		assertEquals(0.3 * 0.25, values[3 * 11 + 3], 1e-12);
+		assertEquals(1, values[54], 1e-12);
+	}
+
+	@Test
+	public void cancel() {
+		//Runs chunks only when asked, so the test controls when the future is cancelled
+		var pending = new ArrayDeque<Runnable>();
+		Executor executor = pending::add;
+
+		var out = new double[100];
+		var future = Sampler.DEFAULT.executor(executor).chunkSize(10).sampleAsync(function, new Sampler.Range(1, 2, 100), out);
+		assertEquals(10, pending.size());
+
+		pending.poll().run();
+		future.cancel(false);
+		while (!pending.isEmpty()) pending.poll().run();
+
+		assertThrows(CancellationException.class, future::join);
+		for (int i = 0; i < out.length; i++) assertEquals(i < 10, out[i] != 0);
+	}
+}